@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Compares the startup time of the application with and without class data sharing.
+# Runs the offline training workload (dev.asjordi.CdsTraining) several times in each mode:
+#   no-cds   class data sharing disabled (-Xshare:off)
+#   jdk-cds  the default CDS archive of the JDK classes
+#   app-cds  the AppCDS archive of the application, created with: mvn -P cds verify
+# and prints the average wall time and the number of classes loaded from the jar.
+#
+# Usage: scripts/startup-time.sh [runs]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+JAR="target/peso-mxn-tracker-1.0-SNAPSHOT.jar"
+ARCHIVE="target/app.jsa"
+MAIN="dev.asjordi.CdsTraining"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [[ ! -f "$JAR" || ! -f "$ARCHIVE" ]]; then
+  echo "Missing $JAR or $ARCHIVE, run: mvn -P cds verify" >&2
+  exit 1
+fi
+
+measure() {
+  local mode="$1"
+  shift
+  local total=0
+
+  for ((i = 0; i < RUNS; i++)); do
+    local start end
+    start=$(date +%s%N)
+    "$JAVA" "$@" -cp "$JAR" "$MAIN" > /dev/null 2>&1
+    end=$(date +%s%N)
+    total=$((total + (end - start) / 1000000))
+  done
+
+  local classes
+  classes=$("$JAVA" "$@" -Xlog:class+load=info -cp "$JAR" "$MAIN" 2>/dev/null | grep -c "source: .*jar" || true)
+  printf "%-8s %6d ms %8d classes loaded from the jar\n" "$mode" $((total / RUNS)) "$classes"
+}
+
+echo "Average of $RUNS runs of $MAIN"
+measure no-cds -Xshare:off
+measure jdk-cds
+measure app-cds -XX:SharedArchiveFile="$ARCHIVE"
@@ -0,0 +1,107 @@
+package dev.asjordi.api;
+
+import dev.asjordi.benchmark.SyntheticData;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load test of the {@link RateApiServer}: the server runs on a free port over a synthetic
+ * series of the size of the full USD history, and {@value #CLIENTS} client threads send
+ * requests to it over loopback. Throughput reports the requests per millisecond of all
+ * clients together, and SampleTime the latency distribution with its p50 and p99.
+ * Dates are picked at random over the whole history, ranges span a year. The fork enables
+ * TCP_NODELAY on the server as the daemon does.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(RateApiBenchmark.CLIENTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateApiBenchmark {
+
+    static final int CLIENTS = 16;
+    private static final int POINTS = 8741;
+    private static final int RANGE_DAYS = 365;
+
+    private RateApiServer server;
+    private HttpClient client;
+    private String baseUrl;
+    private int firstDay;
+    private int lastDay;
+
+    @Setup
+    public void setup() throws IOException {
+        LoggerConfig.getLogger().setLevel(Level.OFF);
+        PrimitiveSeries series = SyntheticData.series(POINTS);
+        firstDay = series.epochDay(0);
+        lastDay = series.epochDay(series.size() - 1);
+
+        server = new RateApiServer(0, () -> Map.of(SyntheticData.ID_SERIE, series));
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://127.0.0.1:" + server.getPort();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public byte[] latest() throws IOException, InterruptedException {
+        return get("/rates/" + SyntheticData.ID_SERIE + "/latest");
+    }
+
+    @Benchmark
+    public byte[] asOfDate() throws IOException, InterruptedException {
+        return get("/rates/" + SyntheticData.ID_SERIE + "?date=" + randomDate(0));
+    }
+
+    @Benchmark
+    public byte[] convert() throws IOException, InterruptedException {
+        return get("/convert/" + SyntheticData.ID_SERIE + "?amount=1500.25&date=" + randomDate(0));
+    }
+
+    @Benchmark
+    public byte[] range() throws IOException, InterruptedException {
+        LocalDate from = randomDate(RANGE_DAYS);
+        return get("/rates/" + SyntheticData.ID_SERIE + "/range?from=" + from + "&to=" + from.plusDays(RANGE_DAYS));
+    }
+
+    private LocalDate randomDate(int daysBeforeEnd) {
+        return LocalDate.ofEpochDay(ThreadLocalRandom.current().nextInt(firstDay, lastDay - daysBeforeEnd + 1));
+    }
+
+    private byte[] get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) throw new IllegalStateException(path + " answered " + response.statusCode());
+        return response.body();
+    }
+
+}
@@ -0,0 +1,88 @@
+package dev.asjordi.benchmark;
+
+import dev.asjordi.convert.BatchConverter;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of converting a batch of invoice lines, each at the rate of its own date,
+ * over a series of the size of the full USD history. Scores are conversions per second.
+ * Compares a binary search of the series per line with the as-of table of
+ * {@link BatchConverter}, on the calling thread and split across the fork/join pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BatchConversionBenchmark {
+
+    private static final int LINES = 1 << 22;
+
+    private PrimitiveSeries series;
+    private BatchConverter converter;
+    private long[] amounts;
+    private int[] epochDays;
+    private long[] results;
+
+    @Setup
+    public void setup() {
+        series = SyntheticData.series(8700);
+        converter = BatchConverter.of(series);
+        amounts = new long[LINES];
+        epochDays = new int[LINES];
+        results = new long[LINES];
+
+        SplittableRandom random = new SplittableRandom(42);
+        int firstDay = series.epochDay(0);
+        int days = series.epochDay(series.size() - 1) - firstDay + 1;
+        for (int i = 0; i < LINES; i++) {
+            amounts[i] = random.nextLong(1, 1_000_000) * FixedPoint.FACTOR / 100;
+            epochDays[i] = firstDay + random.nextInt(days);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long[] binarySearch() {
+        for (int i = 0; i < LINES; i++) {
+            int index = series.indexOf(epochDays[i]);
+            if (index < 0) index = -index - 2;
+            results[i] = index < 0 ? FixedPoint.MISSING : FixedPoint.multiply(amounts[i], series.value(index));
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int table() {
+        return converter.convert(amounts, epochDays, results, 0, LINES, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int tableForkJoin() {
+        return converter.convert(amounts, epochDays, results, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int tableInverse() {
+        return converter.convert(amounts, epochDays, results, 0, LINES, true);
+    }
+
+}
@@ -0,0 +1,77 @@
+package dev.asjordi.benchmark;
+
+import dev.asjordi.analytics.CrossRateEngine;
+import dev.asjordi.model.PrimitiveSeries;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the cross rates between series of the size of the full USD history:
+ * the full historical matrices computed from scratch, and the update after one new
+ * business day is merged into every series.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CrossRateBenchmark {
+
+    private static final int POINTS = 8700;
+
+    @Param({"4", "8"})
+    int seriesCount;
+
+    private List<PrimitiveSeries> history;
+    private List<PrimitiveSeries> updated;
+    private Map<String, PrimitiveSeries> addedData;
+    private CrossRateEngine engine;
+
+    @Setup
+    public void setup() {
+        history = new ArrayList<>();
+        updated = new ArrayList<>();
+        addedData = new LinkedHashMap<>();
+
+        for (int s = 0; s < seriesCount; s++) {
+            String id = "SF" + s;
+            PrimitiveSeries base = SyntheticData.series(id, POINTS, 0);
+            PrimitiveSeries next = SyntheticData.series(id, POINTS + 1, 0);
+            history.add(base);
+            updated.add(next);
+            addedData.put(id, SyntheticData.series(id, 1, POINTS));
+        }
+
+        engine = new CrossRateEngine();
+        engine.rebuild(updated);
+    }
+
+    @Benchmark
+    public CrossRateEngine rebuild() {
+        CrossRateEngine full = new CrossRateEngine();
+        full.rebuild(history);
+        return full;
+    }
+
+    @Benchmark
+    public CrossRateEngine applyNewDay() {
+        engine.apply(updated, addedData);
+        return engine;
+    }
+
+}
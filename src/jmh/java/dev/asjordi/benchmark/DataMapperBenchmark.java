@@ -0,0 +1,104 @@
+package dev.asjordi.benchmark;
+
+import dev.asjordi.DataMapper;
+import dev.asjordi.index.SeriesIndex;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.BmxResponse;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.store.ColumnarSeriesStore;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and persistence benchmarks of {@link DataMapper}: a BMX API response parsed into
+ * objects or streamed into the index, and the full index written to and read from the store.
+ * Payloads go from a month of data to about a million points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DataMapperBenchmark {
+
+    @Param({"30", "8700", "1000000"})
+    int points;
+
+    private String json;
+    private byte[] jsonBytes;
+    private Path directory;
+    private DataMapper dataMapper;
+    private SeriesIndex index;
+
+    @Setup
+    public void setup() throws IOException {
+        LoggerConfig.getLogger().setLevel(java.util.logging.Level.OFF);
+        PrimitiveSeries series = SyntheticData.series(points);
+        json = SyntheticData.bmxJson(series);
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+
+        directory = Files.createTempDirectory("bmx-bench");
+        dataMapper = new DataMapper(new ColumnarSeriesStore(directory));
+        index = new SeriesIndex();
+        index.add(series);
+        dataMapper.mapDataToFile(index);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public BmxResponse mapDataToObject() {
+        return dataMapper.mapDataToObject(Optional.of(new StubResponse<>(json)));
+    }
+
+    @Benchmark
+    public long mapDataToIndex() {
+        Optional<HttpResponse<InputStream>> response = Optional.of(new StubResponse<>(new ByteArrayInputStream(jsonBytes)));
+        return dataMapper.mapDataToIndex(response, new SeriesIndex());
+    }
+
+    @Benchmark
+    public boolean mapDataToFile() {
+        return dataMapper.mapDataToFile(index);
+    }
+
+    @Benchmark
+    public Optional<SeriesIndex> mapFileToIndex() {
+        return dataMapper.mapFileToIndex();
+    }
+
+}
@@ -0,0 +1,133 @@
+package dev.asjordi.benchmark;
+
+import dev.asjordi.index.IndexedSeries;
+import dev.asjordi.logger.AsyncFileHandler;
+import dev.asjordi.logger.LogFormat;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.logger.OverflowPolicy;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+import java.util.logging.XMLFormatter;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the update merge followed by the log line written for every added data point,
+ * with logging disabled, with the former synchronous XML file handler and with the
+ * asynchronous file handler in each format and overflow policy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoggingBenchmark {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    @Param({"OFF", "SYNC_XML", "ASYNC_LINE", "ASYNC_JSON", "ASYNC_LINE_DROP"})
+    String logging;
+
+    @Param({"100", "10000"})
+    int newPoints;
+
+    private PrimitiveSeries base;
+    private PrimitiveSeries batch;
+    private IndexedSeries series;
+    private Path directory;
+    private Handler handler;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        base = SyntheticData.series(8700);
+        batch = SyntheticData.series(SyntheticData.ID_SERIE, newPoints, 8700);
+        directory = Files.createTempDirectory("bmx-bench-logs");
+
+        handler = switch (logging) {
+            case "OFF" -> null;
+            case "SYNC_XML" -> {
+                FileHandler fileHandler = new FileHandler(directory.resolve("app.%g.log").toString(), 1024 * 1024, 10, true);
+                fileHandler.setFormatter(new XMLFormatter());
+                yield fileHandler;
+            }
+            case "ASYNC_LINE" -> asyncHandler(LogFormat.LINE, OverflowPolicy.BLOCK);
+            case "ASYNC_JSON" -> asyncHandler(LogFormat.JSON, OverflowPolicy.BLOCK);
+            case "ASYNC_LINE_DROP" -> asyncHandler(LogFormat.LINE, OverflowPolicy.DROP);
+            default -> throw new IllegalArgumentException(logging);
+        };
+
+        LOGGER.setUseParentHandlers(false);
+        if (handler == null) {
+            LOGGER.setLevel(java.util.logging.Level.OFF);
+        } else {
+            LOGGER.setLevel(java.util.logging.Level.ALL);
+            LOGGER.addHandler(handler);
+        }
+    }
+
+    private AsyncFileHandler asyncHandler(LogFormat format, OverflowPolicy policy) throws IOException {
+        AsyncFileHandler asyncHandler = new AsyncFileHandler(directory, 1024 * 1024, 10, 8192, policy);
+        asyncHandler.setFormatter(format.newFormatter());
+        return asyncHandler;
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        series = IndexedSeries.fromPrimitive(base);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (handler != null) {
+            LOGGER.removeHandler(handler);
+            handler.close();
+        }
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public PrimitiveSeries mergeAndLog() {
+        PrimitiveSeries added = series.upsertAll(batch);
+
+        for (int i = 0; i < added.size(); i++) {
+            var fecha = LocalDate.ofEpochDay(added.epochDay(i));
+            var dato = FixedPoint.format(added.value(i));
+            LOGGER.log(java.util.logging.Level.FINE, () -> "Added new data: " + fecha + " " + dato);
+        }
+
+        return added;
+    }
+
+}
@@ -0,0 +1,62 @@
+package dev.asjordi.benchmark;
+
+import dev.asjordi.codec.SeriesDecoder;
+import dev.asjordi.codec.SeriesEncoder;
+import dev.asjordi.model.PrimitiveSeries;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the compact binary series format: a whole series encoded with
+ * {@link SeriesEncoder} and decoded with {@link SeriesDecoder}, in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SeriesCodecBenchmark {
+
+    @Param({"8700", "1000000"})
+    int points;
+
+    private PrimitiveSeries series;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        series = SyntheticData.series(points);
+        encoded = encode();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(points * 4);
+        try (SeriesEncoder encoder = new SeriesEncoder(out)) {
+            encoder.write(series);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public PrimitiveSeries decode() throws IOException {
+        try (SeriesDecoder decoder = new SeriesDecoder(new ByteArrayInputStream(encoded))) {
+            return decoder.read().orElseThrow();
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package dev.asjordi.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Optional;
+import javax.net.ssl.SSLSession;
+
+/**
+ * In-memory HTTP response, so benchmarks measure parsing without the network.
+ *
+ * @param body The response body
+ * @param <T> The type of the body
+ */
+public record StubResponse<T>(T body) implements HttpResponse<T> {
+
+    private static final URI URI = java.net.URI.create("http://localhost/");
+
+    @Override
+    public int statusCode() {
+        return 200;
+    }
+
+    @Override
+    public HttpRequest request() {
+        return HttpRequest.newBuilder(URI).build();
+    }
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return HttpHeaders.of(Map.of(), (name, value) -> true);
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return URI;
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+    }
+
+}
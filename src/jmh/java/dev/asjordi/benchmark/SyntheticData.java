@@ -0,0 +1,92 @@
+package dev.asjordi.benchmark;
+
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic exchange rate data for benchmarks.
+ * Series are random walks over business days starting in 1991, generated from a fixed seed,
+ * so every run measures the same data.
+ */
+public final class SyntheticData {
+
+    public static final String ID_SERIE = "SF43718";
+    private static final String TITULO = "Tipo de cambio Pesos por dólar E.U.A.";
+    private static final LocalDate START = LocalDate.of(1991, 11, 12);
+    private static final long SEED = 20_240_101L;
+    private static final DateTimeFormatter FECHA_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SyntheticData() { }
+
+    /**
+     * Generates a series of business-day data points.
+     *
+     * @param size The number of data points
+     * @return The series, sorted by date
+     */
+    public static PrimitiveSeries series(int size) {
+        return series(ID_SERIE, size, 0);
+    }
+
+    /**
+     * Generates a series of business-day data points, starting after a number of business days.
+     *
+     * @param idSerie The series identifier
+     * @param size The number of data points
+     * @param offset The number of business days skipped before the first data point
+     * @return The series, sorted by date
+     */
+    public static PrimitiveSeries series(String idSerie, int size, int offset) {
+        int[] days = new int[size];
+        long[] values = new long[size];
+        SplittableRandom random = new SplittableRandom(SEED + offset);
+        LocalDate fecha = START;
+        long value = 30_000;
+
+        for (int i = 0; i < offset + size; i++) {
+            fecha = nextBusinessDay(fecha);
+            value = Math.max(10_000, value + random.nextInt(-250, 251));
+            if (i < offset) continue;
+            days[i - offset] = (int) fecha.toEpochDay();
+            values[i - offset] = value;
+        }
+
+        return new PrimitiveSeries(idSerie, TITULO, days, values, size);
+    }
+
+    /**
+     * Formats a series as the JSON body of a BMX API response.
+     *
+     * @param series The series to format
+     * @return The response body
+     */
+    public static String bmxJson(PrimitiveSeries series) {
+        StringBuilder json = new StringBuilder(series.size() * 40 + 128);
+        json.append("{\"bmx\":{\"series\":[{\"idSerie\":\"").append(series.getIdSerie())
+                .append("\",\"titulo\":\"").append(series.getTitulo()).append("\",\"datos\":[");
+
+        for (int i = 0; i < series.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"fecha\":\"").append(FECHA_FORMAT.format(LocalDate.ofEpochDay(series.epochDay(i))))
+                    .append("\",\"dato\":\"").append(FixedPoint.format(series.value(i))).append("\"}");
+        }
+
+        return json.append("]}]}}").toString();
+    }
+
+    private static LocalDate nextBusinessDay(LocalDate fecha) {
+        LocalDate next = fecha.plusDays(1);
+        while (next.getDayOfWeek() == DayOfWeek.SATURDAY || next.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            next = next.plusDays(1);
+        }
+        return next;
+    }
+
+}
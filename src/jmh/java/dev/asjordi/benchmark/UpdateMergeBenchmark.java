@@ -0,0 +1,94 @@
+package dev.asjordi.benchmark;
+
+import dev.asjordi.index.IndexedSeries;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.store.ColumnarSeriesStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the update merge: new data points upserted into the in-memory history,
+ * alone and followed by the append of the changes to the store.
+ * Each invocation starts from a fresh copy of the history, which is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UpdateMergeBenchmark {
+
+    @Param({"8700", "1000000"})
+    int history;
+
+    @Param({"1", "100", "10000"})
+    int newPoints;
+
+    private PrimitiveSeries base;
+    private PrimitiveSeries batch;
+    private IndexedSeries series;
+    private Path directory;
+    private ColumnarSeriesStore store;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        LoggerConfig.getLogger().setLevel(java.util.logging.Level.OFF);
+        base = SyntheticData.series(history);
+        batch = SyntheticData.series(SyntheticData.ID_SERIE, newPoints, history);
+
+        directory = Files.createTempDirectory("bmx-bench");
+        store = new ColumnarSeriesStore(directory);
+        store.write(base);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        series = IndexedSeries.fromPrimitive(base);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public PrimitiveSeries merge() {
+        return series.upsertAll(batch);
+    }
+
+    @Benchmark
+    public PrimitiveSeries mergeAndAppend() {
+        PrimitiveSeries changes = series.upsertAll(batch);
+        store.append(changes);
+        return changes;
+    }
+
+}
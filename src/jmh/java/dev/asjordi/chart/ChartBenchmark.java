@@ -0,0 +1,97 @@
+package dev.asjordi.chart;
+
+import dev.asjordi.benchmark.SyntheticData;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.jfree.data.xy.XYDataset;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering benchmarks of {@link TimeSeriesChart}: building the dataset and drawing the
+ * full SVG, at full resolution and with each {@link Downsampler}.
+ * svgSize renders once and reports the size of the written SVG as the secondary result
+ * "svgBytes"; JMH adds these counters up over measurement iterations, so it runs a single one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChartBenchmark {
+
+    @Param({"8700", "100000", "1000000"})
+    int points;
+
+    @Param({"NONE", "LTTB", "MINMAX"})
+    String downsampling;
+
+    private List<PrimitiveSeries> series;
+    private Downsampler downsampler;
+    private Path file;
+
+    /**
+     * Size of the chart written by svgSize.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ChartSize {
+
+        public long svgBytes;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        LoggerConfig.getLogger().setLevel(Level.OFF);
+        series = List.of(SyntheticData.series(points));
+        downsampler = switch (downsampling) {
+            case "LTTB" -> new LttbDownsampler();
+            case "MINMAX" -> new MinMaxDownsampler();
+            default -> Downsampler.NONE;
+        };
+        file = Files.createTempFile("bmx-bench", ".svg");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public XYDataset createDataset() {
+        return new TimeSeriesChart(series, downsampler).createDataset();
+    }
+
+    @Benchmark
+    public void renderSvg() {
+        new TimeSeriesChart(series, downsampler).generateChart(file, ChartFormat.SVG);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void svgSize(ChartSize size) throws IOException {
+        new TimeSeriesChart(series, downsampler).generateChart(file, ChartFormat.SVG);
+        size.svgBytes = Files.size(file);
+    }
+
+}
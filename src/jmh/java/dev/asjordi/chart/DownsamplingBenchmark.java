@@ -0,0 +1,93 @@
+package dev.asjordi.chart;
+
+import dev.asjordi.benchmark.SyntheticData;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares charts drawn at full resolution with charts downsampled to the chart width by
+ * {@link LttbDownsampler}. renderSvg measures the time to downsample and render the SVG.
+ * chartSize renders once and reports the size of the SVG written and the number of points
+ * plotted as the secondary results "svgBytes" and "plottedPoints"; JMH adds these counters
+ * up over measurement iterations, so it runs a single one and -i must not be passed.
+ * The default 8741 points match the stored history.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DownsamplingBenchmark {
+
+    @Param({"8741", "100000"})
+    int points;
+
+    @Param({"FULL", "LTTB"})
+    String resolution;
+
+    private List<PrimitiveSeries> series;
+    private Downsampler downsampler;
+    private int plotted;
+    private Path file;
+
+    /**
+     * Size of the chart written by chartSize.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ChartSize {
+
+        public long svgBytes;
+        public long plottedPoints;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        LoggerConfig.getLogger().setLevel(Level.OFF);
+        series = List.of(SyntheticData.series(points));
+        downsampler = "LTTB".equals(resolution) ? new LttbDownsampler() : Downsampler.NONE;
+        plotted = new TimeSeriesChart(series, downsampler).createDataset().getItemCount(0);
+        file = Files.createTempFile("bmx-bench", ".svg");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void renderSvg() {
+        new TimeSeriesChart(series, downsampler).generateChart(file, ChartFormat.SVG);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void chartSize(ChartSize size) throws IOException {
+        new TimeSeriesChart(series, downsampler).generateChart(file, ChartFormat.SVG);
+        size.svgBytes = Files.size(file);
+        size.plottedPoints = plotted;
+    }
+
+}
@@ -0,0 +1,208 @@
+package dev.asjordi;
+
+import dev.asjordi.config.AppConfig;
+import dev.asjordi.index.SeriesIndex;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.request.DateWindow;
+import dev.asjordi.request.RequestManager;
+import dev.asjordi.store.BackfillCheckpoint;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a historical backfill as a set of independent date windows.
+ * The backfill range is split into windows of a configurable length, which are narrowed
+ * to their publication days and fetched in parallel with bounded concurrency. Each request
+ * is already retried by the {@link RequestManager}, so a window that still fails is left
+ * for the next run rather than sent again while the API is failing or its circuit breaker
+ * is open. Windows without publication days are never requested.
+ * Each window is merged into the index and persisted to the store as soon as it
+ * arrives, and recorded in a {@link BackfillCheckpoint} so an interrupted backfill
+ * resumes with the windows that are still missing. A window whose points could not be
+ * persisted is not recorded, and the next window of its series rewrites the whole series,
+ * so the store never ends up with a gap behind a recorded window.
+ */
+public class BackfillRunner {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    private final RequestManager requestManager;
+    private final DataMapper dataMapper;
+    private final FetchService fetchService;
+    private final BackfillCheckpoint checkpoint;
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    private final Set<String> unsaved = new HashSet<>();
+
+    /**
+     * Creates a runner that fetches through the given FetchService and persists through the given DataMapper.
+     * 
+     * @param requestManager The manager providing the series and the last date of the backfill
+     * @param dataMapper The mapper used to persist each window
+     * @param fetchService The service used to fetch each window
+     */
+    public BackfillRunner(RequestManager requestManager, DataMapper dataMapper, FetchService fetchService) {
+        this(requestManager, dataMapper, fetchService, new BackfillCheckpoint());
+    }
+
+    /**
+     * Creates a runner with the given checkpoint.
+     * 
+     * @param requestManager The manager providing the series and the last date of the backfill
+     * @param dataMapper The mapper used to persist each window
+     * @param fetchService The service used to fetch each window
+     * @param checkpoint The progress file of the backfill
+     */
+    public BackfillRunner(RequestManager requestManager, DataMapper dataMapper, FetchService fetchService,
+                          BackfillCheckpoint checkpoint) {
+        this.requestManager = requestManager;
+        this.dataMapper = dataMapper;
+        this.fetchService = fetchService;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * @return true if a previous backfill was interrupted and can be resumed
+     */
+    public boolean isInProgress() {
+        return checkpoint.exists();
+    }
+
+    /**
+     * Runs the backfill of every configured series, resuming an interrupted one if its checkpoint exists.
+     * The checkpoint is removed only when every window has been merged.
+     * 
+     * @param index The index receiving the data points, holding any data stored by an interrupted run
+     * @throws RuntimeException if some windows failed, to be fetched again when the backfill is resumed
+     */
+    public void run(SeriesIndex index) {
+        run(index, requestManager.getSeries());
+    }
+
+    /**
+     * Runs the backfill of the given series, such as series added to the configuration after
+     * the others were stored. An interrupted backfill is resumed instead, with the series it
+     * was started for. The checkpoint is removed only when every window has been merged.
+     * 
+     * @param index The index receiving the data points, holding any data stored by an interrupted run
+     * @param series The identifiers of the series to backfill
+     * @throws RuntimeException if some windows failed, to be fetched again when the backfill is resumed
+     */
+    public void run(SeriesIndex index, List<String> series) {
+        var range = checkpoint.load().orElseGet(() -> {
+            var window = new DateWindow(AppConfig.getBackfillStart(),
+                    requestManager.getEndDate());
+            checkpoint.start(window.from(), window.to(), series);
+            return window;
+        });
+        var backfilled = checkpoint.getSeries().orElseGet(requestManager::getSeries);
+
+        var windows = DateWindow.split(range.from(), range.to(), Period.ofMonths(AppConfig.getBackfillWindowMonths()));
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore permits = new Semaphore(AppConfig.getBackfillConcurrency());
+
+        backfilled.forEach(id -> windows.forEach(window -> {
+            String key = id + " " + window;
+            if (checkpoint.isDone(key)) return;
+
+            var published = requestManager.getCalendar().trim(window.from(), window.to());
+            if (published.isEmpty()) {
+                checkpoint.markDone(key);
+                return;
+            }
+
+            tasks.add(() -> {
+                if (!fetchWindow(id, published.get(), key, index, permits)) failed.incrementAndGet();
+            });
+        }));
+
+        LOGGER.log(Level.INFO, () -> "Backfilling " + backfilled + " " + range + " in " + tasks.size() + " pending windows");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            tasks.forEach(executor::submit);
+        }
+
+        if (failed.get() > 0) {
+            LOGGER.log(Level.SEVERE, () -> "Backfill incomplete, " + failed.get() + " windows failed");
+            throw new RuntimeException("Backfill incomplete, " + failed.get() + " windows failed");
+        }
+
+        checkpoint.clear();
+        LOGGER.log(Level.INFO, () -> "Backfill completed");
+    }
+
+    /**
+     * Fetches one series window and merges it. When the window fails, the fetch service forgets
+     * it, so a resumed backfill fetches it again even if its data points had arrived.
+     * 
+     * @return true if the window was merged, false if it failed
+     */
+    private boolean fetchWindow(String idSerie, DateWindow window, String key, SeriesIndex index, Semaphore permits) {
+        try {
+            permits.acquire();
+            PrimitiveSeries points;
+            try {
+                points = fetchService.fetch(idSerie, window.from(), window.to());
+            } finally {
+                permits.release();
+            }
+
+            mergeWindow(points, index);
+            checkpoint.markDone(key);
+            LOGGER.log(Level.INFO, () -> "Backfilled window " + key);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Window " + key + " failed");
+            fetchService.invalidate(idSerie, window.from(), window.to());
+            return false;
+        }
+    }
+
+    /**
+     * Merges a fetched window into the index and appends its new points to the store.
+     * When an earlier window of the series could not be persisted, its points are already in
+     * the index but maybe not in the store, so the whole series is rewritten instead.
+     * Merges are serialized, since windows of the same series share one indexed series and log.
+     * The lock is a {@link ReentrantLock} rather than synchronized, so windows waiting to merge,
+     * and merges waiting on logging or file locks, do not pin the carrier threads of the
+     * virtual threads that fetch the other windows.
+     */
+    private void mergeWindow(PrimitiveSeries points, SeriesIndex index) {
+        if (points.isEmpty()) return;
+
+        mergeLock.lock();
+        try {
+            var target = index.getOrCreate(points.getIdSerie(), points.getTitulo());
+            if (target.getTitulo() == null) target.setTitulo(points.getTitulo());
+            PrimitiveSeries added = target.upsertAll(points);
+
+            String id = points.getIdSerie();
+            boolean saved = unsaved.contains(id)
+                    ? dataMapper.rewriteSeriesInStore(index, id)
+                    : dataMapper.appendDataToStore(index, Map.of(id, added));
+            if (!saved) {
+                unsaved.add(id);
+                throw new RuntimeException("Failed to persist backfill window of series " + id);
+            }
+            unsaved.remove(id);
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+}
@@ -1,13 +1,26 @@
 package dev.asjordi;
 
-import dev.asjordi.chart.TimeSeriesChart;
+import dev.asjordi.analytics.AggregateEngine;
+import dev.asjordi.analytics.CrossRateEngine;
+import dev.asjordi.chart.ChartJob;
+import dev.asjordi.config.AppConfig;
+import dev.asjordi.index.SeriesIndex;
 import dev.asjordi.logger.LoggerConfig;
-import dev.asjordi.model.Bmx;
-import dev.asjordi.model.Dato;
+import dev.asjordi.metrics.Metrics;
+import dev.asjordi.metrics.Stage;
+import dev.asjordi.model.PrimitiveSeries;
 import dev.asjordi.request.RequestManager;
 import dev.asjordi.util.FileUtils;
-import java.util.Comparator;
-import java.util.concurrent.atomic.AtomicReference;
+import dev.asjordi.util.FixedPoint;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,26 +33,69 @@ import java.util.logging.Logger;
 public class BmxDataProcessor {
 
     private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final Path METRICS_PATH = Path.of("metrics.prom");
     private final RequestManager requestManager;
     private final DataMapper dataMapper;
+    private final FetchService fetchService;
+    private final BackfillRunner backfillRunner;
+    private final AggregateEngine aggregates = new AggregateEngine();
+    private final CrossRateEngine crossRates = new CrossRateEngine();
+    private volatile boolean crossRatesEnabled;
+    private boolean aggregatesLoaded;
+    private SeriesIndex index;
+    private volatile Map<String, PrimitiveSeries> snapshot = Map.of();
 
     /**
-     * Constructor that initializes the RequestManager and DataMapper.
+     * Constructor that initializes the RequestManager, DataMapper, FetchService and BackfillRunner.
      * Sets up the necessary components for processing BMX data.
      */
     public BmxDataProcessor() {
         this.requestManager = new RequestManager();
         this.dataMapper = new DataMapper();
+        this.fetchService = new FetchService(requestManager, dataMapper);
+        this.backfillRunner = new BackfillRunner(requestManager, dataMapper, fetchService);
         LOGGER.log(Level.INFO, () -> "BmxDataProcessor initialized");
     }
 
     /**
      * Main method to process BMX data.
      * Checks if existing data is available and either updates it or creates initial data.
+     * An interrupted initial backfill is resumed before anything else.
+     * The data is kept in memory after the first call, so later calls only apply new data points.
+     * Stage timings of the run are written to metrics.prom when it ends, even if it fails,
+     * and the run counts the data points of the snapshot it published.
      */
-    public void processData() {
+    public synchronized void processData() {
+        try (var timer = Metrics.time(Stage.RUN)) {
+            runStages();
+            snapshot.values().forEach(serie -> timer.addPoints(serie.size()));
+        } finally {
+            Metrics.writeSnapshot(METRICS_PATH);
+        }
+    }
+
+    /**
+     * Loads, updates or creates the data, depending on what is already available.
+     *
+     * @throws IllegalStateException if the store cannot be read and there is no exported data to recover it from,
+     *         rather than downloading the history again over it
+     */
+    private void runStages() {
         LOGGER.log(Level.INFO, () -> "Starting data processing");
-        var optionalCurrentData = dataMapper.mapFileToObject();
+
+        if (backfillRunner.isInProgress()) {
+            LOGGER.log(Level.INFO, () -> "Interrupted backfill found, resuming initial data");
+            createInitialData();
+            return;
+        }
+
+        if (index != null) {
+            LOGGER.log(Level.INFO, () -> "Data already loaded, updating data");
+            updateData(index);
+            return;
+        }
+
+        var optionalCurrentData = dataMapper.mapFileToIndex();
 
         if (optionalCurrentData.isPresent()) {
             LOGGER.log(Level.INFO, () -> "Existing data found, updating data");
@@ -53,106 +109,339 @@ public class BmxDataProcessor {
 
     /**
      * Creates initial data when no existing data is found.
-     * Fetches data from the BMX API, processes it, saves it to files, and generates a chart.
+     * Backfills the data from the BMX API in parallel date windows, then saves it to files
+     * and generates the charts concurrently. Windows stored by an interrupted run are kept and not fetched again.
      */
     private void createInitialData() {
         LOGGER.log(Level.INFO, () -> "Creating initial data");
 
-        var optionalResponseData = requestManager.makeRequest();
-        var responseBmx = dataMapper.mapDataToObject(optionalResponseData);
-        var newBmx = responseBmx.getBmx();
-
-        newBmx.getSeries().removeIf(serie -> serie.getDatos() == null || serie.getDatos().isEmpty());
+        var index = dataMapper.mapFileToIndex().orElseGet(SeriesIndex::new);
+        backfillRunner.run(index);
+        index.removeEmpty();
+        this.index = index;
+        publishSnapshot(index, Map.of());
+        aggregates.rebuild(index);
+        aggregatesLoaded = true;
 
-        newBmx.getSeries().forEach(serie -> serie.getDatos().sort(Comparator.comparing(Dato::getFecha)));
-
-        saveLastUpdateToFile(newBmx);
-        saveDataToFile(newBmx);
-        generateChart(newBmx);
+        persistAndRender(index, () -> saveDataToFile(index));
     }
 
     /**
      * Updates existing data with new data from the BMX API.
-     * Adds new data points to the existing data, sorts them by date,
-     * saves the updated data to files, and regenerates the chart.
+     * Configured series that are not stored yet are backfilled first, and the backfill is
+     * resumed by the next run if the API is degraded meanwhile. Then every series is
+     * fetched from its own last stored date, and the new data points are streamed into the
+     * date-indexed existing data, appended to the store and charted concurrently.
+     * The API is not requested for a series when rates were not published on any day since
+     * its last stored date, such as on weekends and holidays. When the fetch fails while the
+     * circuit breaker of the API is open, the last stored data is served as it is.
+     * Nothing is written when no data point changed and the store already exists.
      * 
-     * @param currentBmx The existing BMX data to be updated
+     * @param index The existing BMX data to be updated
      */
-    private void updateData(Bmx currentBmx) {
+    private void updateData(SeriesIndex index) {
         LOGGER.log(Level.INFO, () -> "Updating data");
+        this.index = index;
+
+        var missing = requestManager.getSeries().stream().filter(id -> index.lastEpochDay(id).isEmpty()).toList();
+        if (!missing.isEmpty()) {
+            LOGGER.log(Level.INFO, () -> "Series " + missing + " not stored yet, backfilling them");
+            try {
+                backfillRunner.run(index, missing);
+            } catch (RuntimeException e) {
+                if (!requestManager.isDegraded()) throw e;
+                LOGGER.log(Level.WARNING, e, () -> "Banxico API unavailable, backfill of " + missing + " resumes on the next run");
+            }
+        }
+
+        var to = LocalDate.now();
+        Map<String, LocalDate> from = new LinkedHashMap<>();
+        requestManager.getSeries().forEach(id -> index.lastEpochDay(id).ifPresent(epochDay -> {
+            var lastDay = LocalDate.ofEpochDay(epochDay);
+            if (requestManager.getCalendar().hasPublicationDay(lastDay.plusDays(1), to)) from.put(id, lastDay);
+        }));
+
+        Map<String, PrimitiveSeries> addedData;
+        if (from.isEmpty()) {
+            LOGGER.log(Level.INFO, () -> "No publication days since the last stored dates, skipping fetch");
+            addedData = Map.of();
+        } else {
+            addedData = fetchOrKeepStored(index, from, to);
+        }
+
+        if (!missing.isEmpty()) {
+            publishSnapshot(index, addedData);
+            aggregates.rebuild(index);
+            aggregatesLoaded = true;
+            persistAndRender(index, () -> saveDataToFile(index));
+            return;
+        }
+
+        if (!addedData.isEmpty() || snapshot.isEmpty()) publishSnapshot(index, addedData);
+        updateAggregates(index, addedData);
+
+        if (addedData.isEmpty() && dataMapper.hasStore()) {
+            LOGGER.log(Level.INFO, () -> "No new data found");
+            saveAggregatesToFile();
+            return;
+        }
 
-        var optionalResponseData = requestManager.makeRequest();
-        var responseBmx = dataMapper.mapDataToObject(optionalResponseData);
-        var newBmx = responseBmx.getBmx();
-
-        newBmx.getSeries().forEach(newSerie -> {
-
-            if (newSerie.getDatos() == null || newSerie.getDatos().isEmpty()) return;
-
-            newSerie.getDatos().forEach(newDato -> currentBmx.getSeries().stream()
-                    .filter(s -> s.getIdSerie().equals(newSerie.getIdSerie()))
-                    .findFirst()
-                    .ifPresent(
-                            s -> {
-                                var exists = s.getDatos()
-                                        .stream()
-                                        .anyMatch(d -> d.getFecha().equals(newDato.getFecha()));
-                                if (!exists) {
-                                    s.getDatos().add(newDato);
-                                    LOGGER.log(Level.INFO, () -> "Added new data: " + newDato);
-                                }
-                            }
-                    ));
+        addedData.values().forEach(added -> {
+            LOGGER.log(Level.INFO, () -> "Added " + added.size() + " new data points to " + added.getIdSerie());
+            for (int i = 0; i < added.size(); i++) {
+                var fecha = LocalDate.ofEpochDay(added.epochDay(i));
+                var dato = FixedPoint.format(added.value(i));
+                LOGGER.log(Level.FINE, () -> "Added new data: " + fecha + " " + dato);
+            }
         });
 
-        currentBmx.getSeries().forEach(serie -> serie.getDatos().sort(Comparator.comparing(Dato::getFecha)));
+        persistAndRender(index, () -> saveNewDataToFile(index, addedData));
+    }
+
+    /**
+     * Runs the stages that follow a merge: the store, the last update date, the aggregated
+     * statistics, the enabled exports and the charts.
+     * The stages only read the merged data, so they run concurrently as a pipeline of
+     * {@link CompletableFuture}s on virtual threads, and the last update date is written
+     * once the store has the data. The run waits for every stage, and the first failure
+     * is rethrown with the failures of the other stages suppressed.
+     * When the pipeline is disabled with BMX_PIPELINE, the stages run one after another.
+     *
+     * @param index The BMX data, after the data points were merged
+     * @param saveStore Saves the data to the store
+     * @throws RuntimeException if a stage fails
+     */
+    private void persistAndRender(SeriesIndex index, Runnable saveStore) {
+        if (!AppConfig.isPipelineEnabled()) {
+            saveStore.run();
+            saveLastUpdateToFile(index);
+            saveAggregatesToFile();
+            exportData(index);
+            generateChart(index);
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            awaitAll(
+                    CompletableFuture.runAsync(saveStore, executor)
+                            .thenRun(() -> saveLastUpdateToFile(index)),
+                    CompletableFuture.runAsync(this::saveAggregatesToFile, executor),
+                    CompletableFuture.runAsync(() -> exportData(index), executor),
+                    CompletableFuture.runAsync(() -> generateChart(index), executor));
+        }
+    }
+
+    /**
+     * Waits for every stage to finish.
+     *
+     * @param stages The stages to wait for
+     * @throws RuntimeException with the cause of the first failed stage
+     */
+    private static void awaitAll(CompletableFuture<?>... stages) {
+        try {
+            CompletableFuture.allOf(stages).join();
+        } catch (CompletionException e) {
+            RuntimeException failure = new RuntimeException("Data processing stage failed", e.getCause());
+            for (CompletableFuture<?> stage : stages) {
+                stage.exceptionally(cause -> {
+                    Throwable unwrapped = cause instanceof CompletionException ? cause.getCause() : cause;
+                    if (unwrapped != e.getCause()) failure.addSuppressed(unwrapped);
+                    return null;
+                });
+            }
+
+            LOGGER.log(Level.SEVERE, failure, () -> "Data processing stage failed");
+            throw failure;
+        }
+    }
+
+    /**
+     * Applies the merged data points to the aggregated statistics.
+     * The persisted statistics are only read once data points were merged, or when
+     * some series has none yet, so a run without new data does not read or write them.
+     *
+     * @param index The BMX data, after the data points were merged
+     * @param addedData The data points that were added or changed, by series identifier
+     */
+    private void updateAggregates(SeriesIndex index, Map<String, PrimitiveSeries> addedData) {
+        if (aggregatesLoaded) {
+            aggregates.apply(index, addedData);
+        } else if (!addedData.isEmpty() || !dataMapper.hasAggregates(index)) {
+            aggregates.restore(index, dataMapper::readAggregates, addedData);
+            aggregatesLoaded = true;
+        }
+    }
+
+    /**
+     * Fetches a date range into existing data, keeping the data as it is if the Banxico API is degraded.
+     *
+     * @param index The existing data receiving the data points
+     * @param from The first date to fetch of each series, by series identifier
+     * @param to The last date to fetch
+     * @return The data points that were added or changed, or none if the API is degraded
+     * @throws RuntimeException if the fetch failed and the API is not considered degraded
+     */
+    private Map<String, PrimitiveSeries> fetchOrKeepStored(SeriesIndex index, Map<String, LocalDate> from, LocalDate to) {
+        try {
+            return fetchInto(index, from, to);
+        } catch (RuntimeException e) {
+            if (!requestManager.isDegraded()) throw e;
+            LOGGER.log(Level.WARNING, e, () -> "Banxico API unavailable, serving the last stored data");
+            return Map.of();
+        }
+    }
+
+    /**
+     * Fetches a date range of each given series concurrently through the fetch service
+     * and merges the data points into the index. Days the service already fetched and that
+     * cannot have changed since are not requested again.
+     * Series are added to the index in configured order, and those that received
+     * no data points are removed afterwards.
+     * 
+     * @param index The index receiving the data points
+     * @param from The first date to fetch of each series, by series identifier
+     * @param to The last date to fetch
+     * @return The data points that were added or changed, by series identifier
+     */
+    private Map<String, PrimitiveSeries> fetchInto(SeriesIndex index, Map<String, LocalDate> from, LocalDate to) {
+        requestManager.getSeries().forEach(id -> index.getOrCreate(id, null));
+
+        Map<String, PrimitiveSeries> addedData = new LinkedHashMap<>();
+        try {
+            fetchService.fetchAll(from, to).forEach((id, points) -> {
+                var target = index.getOrCreate(id, points.getTitulo());
+                if (target.getTitulo() == null) target.setTitulo(points.getTitulo());
+                PrimitiveSeries added = target.upsertAll(points);
+                if (!added.isEmpty()) addedData.put(id, added);
+            });
+        } finally {
+            index.removeEmpty();
+        }
+        return addedData;
+    }
+
+    /**
+     * Gets the data of the last processing run, safe to read from any thread while a run is in progress.
+     * 
+     * @return An immutable snapshot of every series by identifier
+     */
+    public Map<String, PrimitiveSeries> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Keeps cross rates between every pair of series up to date from the next run on,
+     * for callers that serve them.
+     * 
+     * @return The cross rates of the data, updated after every run that merges data points
+     */
+    public CrossRateEngine enableCrossRates() {
+        crossRatesEnabled = true;
+        return crossRates;
+    }
+
+    /**
+     * Replaces the published snapshot with a copy of the current index,
+     * and updates the cross rates when they are enabled.
+     * 
+     * @param index The BMX data to publish
+     * @param addedData The data points that were added or changed since the last snapshot, by series identifier
+     */
+    private void publishSnapshot(SeriesIndex index, Map<String, PrimitiveSeries> addedData) {
+        Map<String, PrimitiveSeries> data = new LinkedHashMap<>();
+        index.snapshot().forEach(series -> data.put(series.getIdSerie(), series));
+        this.snapshot = Collections.unmodifiableMap(data);
+        if (crossRatesEnabled) crossRates.apply(data.values(), addedData);
+    }
 
-        saveLastUpdateToFile(currentBmx);
-        saveDataToFile(currentBmx);
-        generateChart(currentBmx);
+    /**
+     * Flushes pending writes by folding the append logs of the store into their base files.
+     * Waits for a data processing run in progress to finish first.
+     */
+    public synchronized void flush() {
+        LOGGER.log(Level.INFO, () -> "Flushing store");
+        dataMapper.compactStore();
     }
 
     /**
-     * Saves the BMX data to a file using the DataMapper.
+     * Saves the BMX data to the store using the DataMapper.
      * Logs the status of the save operation.
      * 
-     * @param bmx The BMX data to be saved
+     * @param index The BMX data to be saved
      */
-    private void saveDataToFile(Bmx bmx) {
-        var statusSave = dataMapper.mapDataToFile(bmx);
+    private void saveDataToFile(SeriesIndex index) {
+        var statusSave = dataMapper.mapDataToFile(index);
         if (statusSave) LOGGER.log(Level.INFO, () -> "Data saved successfully");
         else LOGGER.log(Level.SEVERE, () -> "An error occurred while saving the data");
     }
 
+    /**
+     * Appends the new data points to the store.
+     * Logs the status of the save operation.
+     * 
+     * @param index The complete BMX data, after the new points were merged
+     * @param addedData The new data points by series identifier
+     */
+    private void saveNewDataToFile(SeriesIndex index, Map<String, PrimitiveSeries> addedData) {
+        var statusSave = dataMapper.appendDataToStore(index, addedData);
+        if (statusSave) LOGGER.log(Level.INFO, () -> "New data saved successfully");
+        else LOGGER.log(Level.SEVERE, () -> "An error occurred while saving the new data");
+    }
+
+    /**
+     * Saves the aggregated statistics that changed since the last save next to the store.
+     * Logs the status of the save operation.
+     */
+    private void saveAggregatesToFile() {
+        var changed = aggregates.drainChanged();
+        if (changed.isEmpty()) return;
+
+        var statusSave = dataMapper.saveAggregates(changed);
+        if (!statusSave) LOGGER.log(Level.SEVERE, () -> "An error occurred while saving the aggregates");
+    }
+
+    /**
+     * Exports the BMX data to the JSON file and the binary snapshot file using the DataMapper,
+     * each only when enabled. Both rewrite the whole history, unlike the store, which only
+     * appends the new data points. The JSON export is enabled by default since data.json is
+     * the published copy of the data, the snapshot is not since the store already holds it.
+     * Logs the status of the export operation.
+     * 
+     * @param index The BMX data to be exported
+     */
+    private void exportData(SeriesIndex index) {
+        boolean json = AppConfig.isJsonExportEnabled();
+        boolean snapshot = AppConfig.isSnapshotExportEnabled();
+        if (!json && !snapshot) return;
+
+        var statusExport = (!json || dataMapper.exportToJson(index.toBmx()))
+                & (!snapshot || dataMapper.exportToSnapshot(index));
+        if (statusExport) LOGGER.log(Level.INFO, () -> "Data exported successfully");
+        else LOGGER.log(Level.SEVERE, () -> "An error occurred while exporting the data");
+    }
+
     /**
      * Saves the date of the most recent data point to a file.
      * Finds the most recent date across all series and writes it to lastUpdate.txt.
      * 
-     * @param bmx The BMX data containing the series with dates
+     * @param index The BMX data containing the series with dates
      */
-    private static void saveLastUpdateToFile(Bmx bmx) {
-        AtomicReference<Dato> lastDato = new AtomicReference<>(null);
-
-        bmx.getSeries().forEach(serie -> {
-            var dato = serie.getDatos().stream().max(Comparator.comparing(Dato::getFecha));
-            dato.ifPresent(lastDato::set);
+    private static void saveLastUpdateToFile(SeriesIndex index) {
+        index.lastEpochDay().ifPresent(epochDay -> {
+            var lastDate = LocalDate.ofEpochDay(epochDay);
+            FileUtils.writeFile("lastUpdate.txt", lastDate.toString());
+            LOGGER.log(Level.INFO, () -> "Last update: " + lastDate);
         });
-
-        if (lastDato.get() != null) {
-            FileUtils.writeFile("lastUpdate.txt", lastDato.get().getFecha().toString());
-            LOGGER.log(Level.INFO, () -> "Last update: " + lastDato.get().getFecha());
-        }
     }
 
     /**
-     * Generates a time series chart from the BMX data.
-     * Creates a new TimeSeriesChart instance and calls its generateChart method.
+     * Generates the time series charts from the BMX data.
+     * Runs a ChartJob, which only renders the views whose data changed.
      * 
-     * @param bmx The BMX data to be visualized in the chart
+     * @param index The BMX data to be visualized in the charts
      */
-    private void generateChart(Bmx bmx) {
-        TimeSeriesChart seriesChart = new TimeSeriesChart(bmx);
-        seriesChart.generateChart();
+    private void generateChart(SeriesIndex index) {
+        new ChartJob().run(index.snapshot());
     }
 
 }
@@ -0,0 +1,203 @@
+package dev.asjordi;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dev.asjordi.index.IndexedSeries;
+import dev.asjordi.index.SeriesIndex;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streaming reader for BMX API responses.
+ * Walks the JSON with Jackson's {@link JsonParser} and pushes each fecha/dato pair
+ * into a {@link SeriesIndex} in fixed-size batches, so neither the response body nor
+ * an object tree of the response is ever held in memory. The data points each batch
+ * changed are handed to the caller as soon as the batch is merged, rather than
+ * collected, so memory does not grow with the requested range either.
+ */
+class BmxResponseReader {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final int BATCH_SIZE = 1024;
+
+    private final JsonFactory factory;
+
+    /**
+     * Creates a reader that uses the given factory to create parsers.
+     *
+     * @param factory The Jackson factory
+     */
+    BmxResponseReader(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Reads a response and merges its data points into the index.
+     * Series that are not in the index yet are added when their first data point is read.
+     *
+     * @param in The response body
+     * @param index The index receiving the data points
+     * @param changes Receives the series identifier and the data points that were added or
+     *                changed by each batch, at most one batch of points at a time
+     * @return The number of data points that were added or changed
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    long read(InputStream in, SeriesIndex index, BiConsumer<String, PrimitiveSeries> changes) throws IOException {
+        long changed = 0;
+
+        try (JsonParser parser = factory.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && "series".equals(parser.currentName())
+                        && parser.nextToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        SeriesBuffer buffer = new SeriesBuffer(index, changes);
+                        readSeries(parser, buffer);
+                        changed += buffer.changed;
+                    }
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    private static void readSeries(JsonParser parser, SeriesBuffer buffer) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "idSerie" -> buffer.idSerie = parser.getText();
+                case "titulo" -> buffer.titulo = parser.getText();
+                case "datos" -> {
+                    if (value == JsonToken.START_ARRAY) readDatos(parser, buffer);
+                    else parser.skipChildren();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        buffer.flush();
+    }
+
+    private static void readDatos(JsonParser parser, SeriesBuffer buffer) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int epochDay = Integer.MIN_VALUE;
+            long value = FixedPoint.MISSING;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "fecha" -> epochDay = parseDate(parser);
+                    case "dato" -> value = FixedPoint.parse(
+                            CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (epochDay != Integer.MIN_VALUE) buffer.add(epochDay, value);
+        }
+    }
+
+    /**
+     * Parses a "dd/MM/yyyy" date straight from the parser's character buffer.
+     */
+    private static int parseDate(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+
+        if (parser.getTextLength() != 10 || chars[offset + 2] != '/' || chars[offset + 5] != '/') {
+            throw new JsonParseException(parser, "Invalid date: " + parser.getText());
+        }
+
+        int day = digits(chars, offset, 2);
+        int month = digits(chars, offset + 3, 2);
+        int year = digits(chars, offset + 6, 4);
+
+        if (day < 0 || month < 0 || year < 0) {
+            throw new JsonParseException(parser, "Invalid date: " + parser.getText());
+        }
+
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    private static int digits(char[] chars, int offset, int length) {
+        int result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (chars[i] < '0' || chars[i] > '9') return -1;
+            result = result * 10 + (chars[i] - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Collects the data points of the series being read and flushes them to the index.
+     * Points are only buffered beyond one batch if the series identifier has not been read yet.
+     */
+    private static final class SeriesBuffer {
+
+        private final SeriesIndex index;
+        private final BiConsumer<String, PrimitiveSeries> changes;
+        private String idSerie;
+        private String titulo;
+        private int[] epochDays = new int[BATCH_SIZE];
+        private long[] values = new long[BATCH_SIZE];
+        private int size;
+        private long changed;
+
+        private SeriesBuffer(SeriesIndex index, BiConsumer<String, PrimitiveSeries> changes) {
+            this.index = index;
+            this.changes = changes;
+        }
+
+        private void add(int epochDay, long value) {
+            if (size == epochDays.length) {
+                if (idSerie != null) flush();
+                else {
+                    epochDays = Arrays.copyOf(epochDays, size * 2);
+                    values = Arrays.copyOf(values, size * 2);
+                }
+            }
+
+            epochDays[size] = epochDay;
+            values[size] = value;
+            size++;
+        }
+
+        private void flush() {
+            if (size == 0) return;
+
+            if (idSerie == null) {
+                LOGGER.log(Level.WARNING, () -> "Discarding " + size + " data points of a series without idSerie");
+                size = 0;
+                return;
+            }
+
+            IndexedSeries target = index.getOrCreate(idSerie, titulo);
+            if (target.getTitulo() == null) target.setTitulo(titulo);
+
+            PrimitiveSeries batch = target.upsertAll(new PrimitiveSeries(idSerie, titulo, epochDays, values, size));
+            if (!batch.isEmpty()) {
+                changed += batch.size();
+                changes.accept(idSerie, batch);
+            }
+
+            size = 0;
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package dev.asjordi;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import dev.asjordi.analytics.AggregateEngine;
+import dev.asjordi.chart.ChartFormat;
+import dev.asjordi.chart.ChartJob;
+import dev.asjordi.index.SeriesIndex;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.metrics.Metrics;
+import dev.asjordi.store.ColumnarSeriesStore;
+import dev.asjordi.util.FixedPoint;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Training run used to create the AppCDS archive of the application.
+ * Goes once through every subsystem a real run uses, on a small synthetic series
+ * in a temporary directory and without network access: response parsing, the
+ * binary store, aggregated statistics and their JSON files, charts in every format,
+ * metrics and the HTTP client. Every class loaded on the way is dumped to the archive
+ * when the JVM exits, for example with:
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=target/app.jsa -cp target/peso-mxn-tracker-1.0-SNAPSHOT.jar dev.asjordi.CdsTraining
+ * </pre>
+ */
+public class CdsTraining {
+
+    private static final String ID_SERIE = "SF43718";
+    private static final int TRAINING_POINTS = 400;
+    private static final DateTimeFormatter FECHA_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private CdsTraining() { }
+
+    /**
+     * Runs the training workload.
+     *
+     * @param args Not used
+     * @throws IOException if the temporary directory cannot be created or deleted
+     */
+    public static void main(String[] args) throws IOException {
+        LoggerConfig.getLogger().setLevel(Level.WARNING);
+        Path directory = Files.createTempDirectory("bmx-cds");
+
+        try {
+            SeriesIndex index = new SeriesIndex();
+            new BmxResponseReader(new JsonFactory()).read(responseBody(), index, (id, added) -> { });
+            var addedData = Map.of(ID_SERIE, index.get(ID_SERIE).orElseThrow().toPrimitive());
+
+            DataMapper dataMapper = new DataMapper(new ColumnarSeriesStore(directory.resolve("store")));
+            dataMapper.mapDataToFile(index);
+            dataMapper.appendDataToStore(index, addedData);
+            dataMapper.mapFileToIndex();
+
+            AggregateEngine aggregates = new AggregateEngine();
+            aggregates.restore(index, dataMapper::readAggregates, Map.of());
+            dataMapper.saveAggregates(aggregates.drainChanged());
+            dataMapper.readAggregates(ID_SERIE);
+
+            for (ChartFormat format : ChartFormat.values()) {
+                Path charts = directory.resolve(format.name());
+                new ChartJob(charts, charts.resolve("chart.svg"), 1, format).run(index.snapshot());
+            }
+
+            try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("https://www.banxico.org.mx/")).GET().build();
+                LoggerConfig.getLogger().log(Level.FINE, () -> "Built " + client.version() + " request to " + request.uri());
+            }
+
+            Metrics.scrape();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Builds a BMX API response body with one series of business-day data points.
+     */
+    private static ByteArrayInputStream responseBody() {
+        StringBuilder json = new StringBuilder("{\"bmx\":{\"series\":[{\"idSerie\":\"" + ID_SERIE
+                + "\",\"titulo\":\"Tipo de cambio\",\"datos\":[");
+        LocalDate fecha = LocalDate.of(2020, 1, 1);
+
+        for (int i = 0; i < TRAINING_POINTS; i++) {
+            do fecha = fecha.plusDays(1);
+            while (fecha.getDayOfWeek() == DayOfWeek.SATURDAY || fecha.getDayOfWeek() == DayOfWeek.SUNDAY);
+
+            if (i > 0) json.append(',');
+            json.append("{\"fecha\":\"").append(FECHA_FORMAT.format(fecha))
+                    .append("\",\"dato\":\"").append(FixedPoint.format(180_000L + i * 7L % 5_000)).append("\"}");
+        }
+
+        json.append("]}]}}");
+        return new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+}
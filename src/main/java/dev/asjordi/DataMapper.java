@@ -1,16 +1,32 @@
 package dev.asjordi;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.asjordi.analytics.SeriesAggregates;
+import dev.asjordi.codec.SeriesDecoder;
+import dev.asjordi.codec.SeriesEncoder;
+import dev.asjordi.index.IndexedSeries;
+import dev.asjordi.index.SeriesIndex;
 import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.metrics.Metrics;
+import dev.asjordi.metrics.Stage;
 import dev.asjordi.model.Bmx;
 import dev.asjordi.model.BmxResponse;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.store.ColumnarSeriesStore;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -19,24 +35,50 @@ import java.util.logging.Logger;
  * Handles data mapping between different formats for the BMX exchange rate data.
  * This class is responsible for:
  * - Converting HTTP responses to Java objects
- * - Persisting Java objects to JSON files
- * - Reading JSON files and converting them back to Java objects
- * Uses Jackson for JSON serialization and deserialization.
+ * - Persisting Java objects to the binary columnar store
+ * - Reading the store and converting it back to Java objects
+ * - Exporting Java objects to JSON files
+ * Uses Jackson for JSON serialization and deserialization. The JSON file is only
+ * read when the store does not exist yet, to migrate existing data.
+ * Responses are read with the Jackson streaming parser, and the databind mapper is only
+ * created the first time a JSON file is read or written, so a run without new data
+ * does not load it.
  */
 public class DataMapper {
 
     private static final Logger LOGGER = LoggerConfig.getLogger();
-    private final ObjectMapper mapper;
+    private final ColumnarSeriesStore store;
+    private final BmxResponseReader responseReader;
     private final Path PATH = Path.of("data.json");
+    private final Path SNAPSHOT_PATH = Path.of("data.bmxd");
+    private static final String AGGREGATES_EXTENSION = ".aggregates.json";
+    private volatile boolean storeUnreadable;
 
     /**
-     * Constructor that initializes the Jackson ObjectMapper.
+     * Holder of the Jackson ObjectMapper, initialized on first use.
      * Configures the mapper to handle Java 8 date/time types properly.
      */
-    public DataMapper() {
-        this.mapper = new ObjectMapper()
+    private static final class Json {
+        private static final ObjectMapper MAPPER = new ObjectMapper()
                 .registerModule(new JavaTimeModule())
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Constructor that initializes the response reader and the series store.
+     */
+    public DataMapper() {
+        this(new ColumnarSeriesStore());
+    }
+
+    /**
+     * Constructor that initializes the response reader with the given series store.
+     *
+     * @param store The store used as primary persistence
+     */
+    public DataMapper(ColumnarSeriesStore store) {
+        this.store = store;
+        this.responseReader = new BmxResponseReader(new JsonFactory());
         LOGGER.log(Level.INFO, () -> "DataMapper initialized");
     }
 
@@ -53,8 +95,11 @@ public class DataMapper {
 
         try {
             if (response.isPresent() && response.get().statusCode() == 200) {
-                bmxResponse = mapper.readValue(response.get().body(), BmxResponse.class);
+                bmxResponse = Json.MAPPER.readValue(response.get().body(), BmxResponse.class);
                 LOGGER.log(Level.INFO, () -> "Data mapped to BmxResponse object successfully");
+            } else if (response.isEmpty()) {
+                LOGGER.log(Level.SEVERE, () -> "Error getting data from API");
+                throw new RuntimeException("Error getting data from API");
             } else {
                 LOGGER.log(Level.SEVERE, () -> "Error getting data from API\n" + "Status code: " + response.get().statusCode());
                 throw new RuntimeException("Error getting data from API");
@@ -68,19 +113,222 @@ public class DataMapper {
     }
 
     /**
-     * Persists a Bmx object to a JSON file.
+     * Streams an HTTP response containing JSON data from the BMX API into a series index.
+     * The body is consumed as it arrives, so memory use does not depend on the requested date range.
+     * 
+     * @param response Optional HTTP response with the body as a stream
+     * @param index The index receiving the data points
+     * @return The number of data points that were added or changed
+     * @throws RuntimeException if the response is empty, has a non-200 status code, or cannot be parsed
+     */
+    public long mapDataToIndex(Optional<HttpResponse<InputStream>> response, SeriesIndex index) {
+        LOGGER.log(Level.INFO, () -> "Streaming data into series index");
+
+        if (response.isEmpty()) {
+            LOGGER.log(Level.SEVERE, () -> "Error getting data from API");
+            throw new RuntimeException("Error getting data from API");
+        }
+
+        try (InputStream body = response.get().body()) {
+            if (response.get().statusCode() != 200) {
+                LOGGER.log(Level.SEVERE, () -> "Error getting data from API\n" + "Status code: " + response.get().statusCode());
+                throw new RuntimeException("Error getting data from API");
+            }
+
+            try (var timer = Metrics.time(Stage.PARSE)) {
+                long changed = responseReader.read(body, index, (id, added) -> { });
+                timer.addPoints(changed);
+                LOGGER.log(Level.INFO, () -> "Data streamed into series index successfully");
+                return changed;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to stream data into series index", e);
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Persists every series of the index to the binary columnar store.
+     * 
+     * @param index The series to be saved to the store
+     * @return true if the operation was successful, false otherwise
+     */
+    public boolean mapDataToFile(SeriesIndex index) {
+        LOGGER.log(Level.INFO, () -> "Mapping series index to store");
+
+        try (var timer = Metrics.time(Stage.PERSIST)) {
+            List<String> ids = new ArrayList<>();
+            index.snapshot().forEach(serie -> {
+                timer.addBytes(store.write(serie));
+                timer.addPoints(serie.size());
+                ids.add(serie.getIdSerie());
+            });
+            store.writeManifest(ids);
+            storeUnreadable = false;
+            LOGGER.log(Level.INFO, () -> "Series index mapped to store successfully");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to map series index to store", e);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Persists only the new data points of each series to the store.
+     * Points of series already in the store are appended to their logs, while
+     * series that are not stored yet are written in full. A store that could not be
+     * read is rewritten in full from the index instead.
      * 
-     * @param bmx The Bmx object to be saved to file
+     * @param index The complete series index, used for series not yet in the store
+     * @param newData The new or changed data points by series identifier
      * @return true if the operation was successful, false otherwise
      */
-    public boolean mapDataToFile(Bmx bmx) {
-        LOGGER.log(Level.INFO, () -> "Mapping Bmx object to file");
+    public boolean appendDataToStore(SeriesIndex index, Map<String, PrimitiveSeries> newData) {
+        if (!hasStore()) return mapDataToFile(index);
+
+        LOGGER.log(Level.INFO, () -> "Appending new data to store");
+
+        try (var timer = Metrics.time(Stage.PERSIST)) {
+            List<String> ids = new ArrayList<>();
+            index.all().forEach(serie -> {
+                if (!store.contains(serie.getIdSerie())) {
+                    timer.addBytes(store.write(serie.toPrimitive()));
+                    timer.addPoints(serie.size());
+                } else {
+                    var changes = newData.get(serie.getIdSerie());
+                    if (changes != null && !changes.isEmpty()) {
+                        timer.addBytes(store.append(changes));
+                        timer.addPoints(changes.size());
+                    }
+                }
+                ids.add(serie.getIdSerie());
+            });
+            if (!ids.equals(store.listSeries())) store.writeManifest(ids);
+            LOGGER.log(Level.INFO, () -> "New data appended to store successfully");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to append new data to store", e);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Rewrites one series of the index to the store in full, superseding its base file and log.
+     * Used when appending points of the series failed, so the store may be missing some of them.
+     * 
+     * @param index The complete series index
+     * @param idSerie The identifier of the series to rewrite
+     * @return true if the operation was successful, false otherwise
+     */
+    public boolean rewriteSeriesInStore(SeriesIndex index, String idSerie) {
+        if (!hasStore()) return mapDataToFile(index);
+
+        LOGGER.log(Level.INFO, () -> "Rewriting series " + idSerie + " in store");
+
+        try (var timer = Metrics.time(Stage.PERSIST)) {
+            index.get(idSerie).ifPresent(serie -> {
+                timer.addBytes(store.write(serie.toPrimitive()));
+                timer.addPoints(serie.size());
+            });
+            List<String> ids = index.all().stream().map(IndexedSeries::getIdSerie).toList();
+            if (!ids.equals(store.listSeries())) store.writeManifest(ids);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to rewrite series " + idSerie + " in store", e);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if the binary columnar store has been written at least once and was not found unreadable
+     */
+    public boolean hasStore() {
+        return store.exists() && !storeUnreadable;
+    }
+
+    /**
+     * Folds the append logs of every stored series into their base files.
+     */
+    public void compactStore() {
+        store.compactAll();
+    }
+
+    /**
+     * Persists the aggregated statistics of each series next to the series in the store.
+     * Each file is written to a temporary file first and moved into place.
+     * 
+     * @param aggregates The statistics to be saved
+     * @return true if the operation was successful, false otherwise
+     */
+    public boolean saveAggregates(List<SeriesAggregates> aggregates) {
+        try (var timer = Metrics.time(Stage.PERSIST)) {
+            Files.createDirectories(store.getDirectory());
+            for (SeriesAggregates serie : aggregates) {
+                Path file = aggregatesPath(serie.getIdSerie());
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                Json.MAPPER.writeValue(tmp.toFile(), serie);
+                timer.addBytes(Files.size(tmp));
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            LOGGER.log(Level.INFO, () -> "Aggregates saved for " + aggregates.size() + " series");
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to save aggregates", e);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the persisted aggregated statistics of a series.
+     * 
+     * @param idSerie The series identifier
+     * @return Optional containing the statistics, or an empty Optional if they are not stored or cannot be read
+     */
+    public Optional<SeriesAggregates> readAggregates(String idSerie) {
+        Path file = aggregatesPath(idSerie);
+        if (!Files.exists(file)) return Optional.empty();
 
         try {
-            mapper.writeValue(PATH.toFile(), bmx);
-            LOGGER.log(Level.INFO, () -> "Bmx object mapped to file successfully");
+            return Optional.of(Json.MAPPER.readValue(file.toFile(), SeriesAggregates.class));
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Failed to map Bmx object to file", e);
+            LOGGER.log(Level.WARNING, "Failed to read aggregates of " + idSerie + ", recomputing them", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks whether aggregated statistics are stored for every series of the index.
+     * 
+     * @param index The BMX data
+     * @return true if every series has a statistics file, false otherwise
+     */
+    public boolean hasAggregates(SeriesIndex index) {
+        return index.all().stream().allMatch(serie -> Files.exists(aggregatesPath(serie.getIdSerie())));
+    }
+
+    private Path aggregatesPath(String idSerie) {
+        return store.getDirectory().resolve(idSerie + AGGREGATES_EXTENSION);
+    }
+
+    /**
+     * Exports a Bmx object to the JSON file.
+     * 
+     * @param bmx The Bmx object to be exported
+     * @return true if the operation was successful, false otherwise
+     */
+    public boolean exportToJson(Bmx bmx) {
+        LOGGER.log(Level.INFO, () -> "Exporting Bmx object to JSON file");
+
+        try (var timer = Metrics.time(Stage.PERSIST)) {
+            Json.MAPPER.writeValue(PATH.toFile(), bmx);
+            timer.addBytes(Files.size(PATH));
+            LOGGER.log(Level.INFO, () -> "Bmx object exported to JSON file successfully");
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to export Bmx object to JSON file", e);
             return false;
         }
 
@@ -88,18 +336,135 @@ public class DataMapper {
     }
 
     /**
-     * Reads a JSON file and converts it to a Bmx object.
+     * Exports every series to the compact binary snapshot file.
+     * Dates and values are delta encoded with {@link SeriesEncoder}, so the snapshot takes
+     * a small fraction of the size of the JSON file and is decoded without parsing text.
+     * The file is written to a temporary file first and moved into place.
+     * 
+     * @param index The BMX data to be exported
+     * @return true if the operation was successful, false otherwise
+     */
+    public boolean exportToSnapshot(SeriesIndex index) {
+        LOGGER.log(Level.INFO, () -> "Exporting series index to snapshot file");
+        Path tmp = SNAPSHOT_PATH.resolveSibling(SNAPSHOT_PATH.getFileName() + ".tmp");
+
+        try (var timer = Metrics.time(Stage.PERSIST)) {
+            try (OutputStream out = Files.newOutputStream(tmp);
+                 SeriesEncoder encoder = new SeriesEncoder(out)) {
+                for (PrimitiveSeries serie : index.snapshot()) {
+                    encoder.write(serie);
+                    timer.addPoints(serie.size());
+                }
+            }
+            timer.addBytes(Files.size(tmp));
+            Files.move(tmp, SNAPSHOT_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.log(Level.INFO, () -> "Series index exported to snapshot file successfully");
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to export series index to snapshot file", e);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the stored data into a date-indexed view.
+     * Uses the binary columnar store when it exists, and falls back to the
+     * binary snapshot or the JSON file otherwise so that existing data is migrated on the next save.
+     * A store that exists but cannot be read is never taken for missing data, which would
+     * download the history again over it: the data is recovered from the snapshot or the
+     * JSON file, and the store is rewritten in full on the next save.
+     * 
+     * @return Optional containing the series index if stored data exists and can be read,
+     *         or an empty Optional if there is no stored data
+     * @throws IllegalStateException if the store cannot be read and there is no snapshot or JSON file to recover it from
+     */
+    public Optional<SeriesIndex> mapFileToIndex() {
+        if (!store.exists()) return mapExportsToIndex();
+
+        try {
+            return mapStoreToIndex();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, e, () -> "Store cannot be read, recovering the data from the snapshot or JSON file");
+            storeUnreadable = true;
+            var recovered = mapExportsToIndex();
+            if (recovered.isEmpty()) {
+                throw new IllegalStateException("Store cannot be read and there is no snapshot or JSON file to recover it from", e);
+            }
+            return recovered;
+        }
+    }
+
+    /**
+     * Reads the binary snapshot file, or the JSON file if there is no readable snapshot.
+     * 
+     * @return Optional containing the series index, or an empty Optional if neither can be read
+     */
+    private Optional<SeriesIndex> mapExportsToIndex() {
+        return mapSnapshotToIndex().or(() -> mapJsonToObject().map(SeriesIndex::of));
+    }
+
+    /**
+     * Reads the binary snapshot file into a date-indexed view.
+     * 
+     * @return Optional containing the series index, or an empty Optional if the file
+     *         does not exist or cannot be read
+     */
+    private Optional<SeriesIndex> mapSnapshotToIndex() {
+        if (!Files.exists(SNAPSHOT_PATH)) return Optional.empty();
+        LOGGER.log(Level.INFO, () -> "Mapping snapshot file to series index");
+
+        try (SeriesDecoder decoder = new SeriesDecoder(Files.newInputStream(SNAPSHOT_PATH))) {
+            SeriesIndex index = new SeriesIndex();
+            for (var serie = decoder.read(); serie.isPresent(); serie = decoder.read()) {
+                index.add(serie.get());
+            }
+
+            if (index.all().isEmpty()) return Optional.empty();
+
+            LOGGER.log(Level.INFO, () -> "Snapshot file mapped to series index successfully");
+            return Optional.of(index);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to map snapshot file to series index", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the binary columnar store into a date-indexed view.
+     * Observations left in the append logs are replayed on top of the base files.
+     * No object is created per observation.
+     * 
+     * @return Optional containing the series index, or an empty Optional if the manifest lists no series
+     * @throws RuntimeException if a series of the manifest is missing or cannot be read
+     */
+    private Optional<SeriesIndex> mapStoreToIndex() {
+        LOGGER.log(Level.INFO, () -> "Mapping store to series index");
+
+        SeriesIndex index = new SeriesIndex();
+        for (String id : store.listSeries()) {
+            index.add(store.read(id).orElseThrow(() -> new IllegalStateException("Series " + id + " of the store manifest is missing")));
+        }
+
+        if (index.all().isEmpty()) return Optional.empty();
+
+        LOGGER.log(Level.INFO, () -> "Store mapped to series index successfully");
+        return Optional.of(index);
+    }
+
+    /**
+     * Reads the JSON file and converts it to a Bmx object.
      * 
      * @return Optional containing the Bmx object if the file exists and can be parsed,
      *         or an empty Optional otherwise
      */
-    public Optional<Bmx> mapFileToObject() {
+    private Optional<Bmx> mapJsonToObject() {
         Bmx bmx;
         LOGGER.log(Level.INFO, () -> "Mapping file to Bmx object");
 
         try {
             if (Files.exists(PATH) && Files.size(PATH) > 0) {
-                bmx = mapper.readValue(PATH.toFile(), Bmx.class);
+                bmx = Json.MAPPER.readValue(PATH.toFile(), Bmx.class);
                 LOGGER.log(Level.INFO, () -> "File mapped to Bmx object successfully");
             }
             else return Optional.empty();
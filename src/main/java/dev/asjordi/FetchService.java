@@ -0,0 +1,303 @@
+package dev.asjordi;
+
+import dev.asjordi.config.AppConfig;
+import dev.asjordi.index.IndexedSeries;
+import dev.asjordi.index.SeriesIndex;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.request.DateWindow;
+import dev.asjordi.request.PublicationCalendar;
+import dev.asjordi.request.RequestManager;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fetches date ranges of series from the Banxico API without ever requesting the same day twice.
+ * <p>
+ * Only the ranges of days fetched for each series are kept, not their data points: callers
+ * merge what they receive into their {@link SeriesIndex}, which already holds the days fetched
+ * before, so memory does not grow with the history fetched. A request only fetches the days of
+ * its range that are not covered yet, narrowed to their publication days, so overlapping ranges
+ * are merged rather than fetched again. Days that another caller is already fetching are not
+ * requested either: the request waits for that fetch and receives its data points, so concurrent
+ * requests for the same series and range share a single call.
+ * <p>
+ * Past days are final and stay covered. Today and later days may still get a rate, so their
+ * coverage expires at the next publication of the {@link PublicationCalendar}, when Banxico
+ * may have published a new rate. A caller that could not keep the data points of a range
+ * {@linkplain #invalidate invalidates} it so it is fetched again. Instances are thread-safe.
+ */
+public class FetchService {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    private final RequestManager requestManager;
+    private final DataMapper dataMapper;
+    private final ConcurrentMap<String, CachedSeries> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a service that fetches through the given RequestManager and parses through the given DataMapper.
+     *
+     * @param requestManager The manager used to request each missing range
+     * @param dataMapper The mapper used to parse each response
+     */
+    public FetchService(RequestManager requestManager, DataMapper dataMapper) {
+        this.requestManager = requestManager;
+        this.dataMapper = dataMapper;
+    }
+
+    /**
+     * Fetches a date range of each given series concurrently, one virtual thread per series,
+     * starting at the first date of that series. Series without publication days in their
+     * range are not fetched, and a series whose fetch fails is logged and left out of the result.
+     *
+     * @param from The first date to fetch of each series, by series identifier
+     * @param to The last date to fetch
+     * @return The data points of each range by series identifier, in the iteration order of the given dates
+     * @throws RuntimeException if every series failed
+     */
+    public Map<String, PrimitiveSeries> fetchAll(Map<String, LocalDate> from, LocalDate to) {
+        return requestManager.forEachSeries(from, to, (id, window) -> fetch(id, window.from(), window.to()));
+    }
+
+    /**
+     * Fetches a date range of a series, requesting only the days that are not covered or being fetched.
+     * Days covered by an earlier fetch are not returned again, since the caller merged them then.
+     *
+     * @param idSerie The identifier of the series
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return The data points of the range that were fetched by this call or the calls it waited for,
+     *         empty if every day was covered or rates were not published on any day of it
+     * @throws RuntimeException if a missing part of the range could not be fetched
+     */
+    public PrimitiveSeries fetch(String idSerie, LocalDate from, LocalDate to) {
+        CachedSeries series = cache.computeIfAbsent(idSerie, CachedSeries::new);
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        List<CompletableFuture<PrimitiveSeries>> waits = new ArrayList<>();
+        List<Pending> owned = new ArrayList<>();
+
+        series.lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            series.coverage.removeIf(range -> range.expiresAt <= now);
+
+            List<Range> taken = new ArrayList<>(series.coverage);
+            series.pending.forEach(pending -> {
+                if (pending.range.overlaps(first, last)) waits.add(pending.done);
+                taken.add(pending.range);
+            });
+
+            for (DateWindow gap : gaps(first, last, taken)) {
+                var published = requestManager.getCalendar().trim(gap.from(), gap.to());
+                if (published.isEmpty()) continue;
+
+                Pending pending = new Pending(new Range(gap.from().toEpochDay(), gap.to().toEpochDay(), Long.MAX_VALUE),
+                        published.get(), new CompletableFuture<>());
+                series.pending.add(pending);
+                owned.add(pending);
+            }
+        } finally {
+            series.lock.unlock();
+        }
+
+        if (!waits.isEmpty()) {
+            LOGGER.log(Level.INFO, () -> "Joining " + waits.size() + " fetches in flight of series " + idSerie);
+        }
+        if (owned.isEmpty() && waits.isEmpty()) {
+            LOGGER.log(Level.INFO, () -> "Range " + from + "/" + to + " of " + idSerie + " already fetched, nothing to request");
+        }
+
+        IndexedSeries result = new IndexedSeries(idSerie, null);
+        RuntimeException failure = null;
+        for (Pending pending : owned) {
+            try {
+                merge(result, load(series, pending));
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw failure;
+
+        for (CompletableFuture<PrimitiveSeries> wait : waits) {
+            try {
+                merge(result, wait.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        return result.range(first, last);
+    }
+
+    /**
+     * Forgets that a date range of a series was fetched, so the next request of any of its days
+     * fetches them again. Used by callers that could not keep the data points they received.
+     *
+     * @param idSerie The identifier of the series
+     * @param from The first date of the range
+     * @param to The last date of the range
+     */
+    public void invalidate(String idSerie, LocalDate from, LocalDate to) {
+        CachedSeries series = cache.get(idSerie);
+        if (series == null) return;
+
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+
+        series.lock.lock();
+        try {
+            List<Range> kept = new ArrayList<>();
+            for (Range range : series.coverage) {
+                if (!range.overlaps(first, last)) {
+                    kept.add(range);
+                    continue;
+                }
+                if (range.from < first) kept.add(new Range(range.from, first - 1, range.expiresAt));
+                if (range.to > last) kept.add(new Range(last + 1, range.to, range.expiresAt));
+            }
+            series.coverage.clear();
+            series.coverage.addAll(kept);
+        } finally {
+            series.lock.unlock();
+        }
+    }
+
+    private static void merge(IndexedSeries result, PrimitiveSeries points) {
+        if (points.isEmpty()) return;
+        if (result.getTitulo() == null) result.setTitulo(points.getTitulo());
+        result.upsertAll(points);
+    }
+
+    /**
+     * Fetches a missing range and records the days it covers.
+     * Callers waiting for the range are released with its data points, or with the failure.
+     *
+     * @return The data points of the range
+     */
+    private PrimitiveSeries load(CachedSeries series, Pending pending) {
+        try {
+            SeriesIndex chunk = new SeriesIndex();
+            dataMapper.mapDataToIndex(requestManager.makeStreamingRequest(series.idSerie,
+                    pending.window.from(), pending.window.to()), chunk);
+            PrimitiveSeries fetched = chunk.get(series.idSerie).map(IndexedSeries::toPrimitive)
+                    .orElseGet(() -> new PrimitiveSeries(series.idSerie, null, new int[0], new long[0], 0));
+
+            series.lock.lock();
+            try {
+                series.pending.remove(pending);
+                cover(series, pending.range);
+            } finally {
+                series.lock.unlock();
+            }
+            pending.done.complete(fetched);
+            return fetched;
+        } catch (RuntimeException e) {
+            series.lock.lock();
+            try {
+                series.pending.remove(pending);
+            } finally {
+                series.lock.unlock();
+            }
+            pending.done.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Records the days of a fetched range. Past days never expire, and are merged with the
+     * final ranges they touch. Today and later days expire at the next publication.
+     */
+    private void cover(CachedSeries series, Range fetched) {
+        ZonedDateTime now = ZonedDateTime.now(AppConfig.getScheduleZone());
+        long today = now.toLocalDate().toEpochDay();
+
+        if (fetched.to >= today) {
+            long expiresAt = requestManager.getCalendar().nextPublication(now).toInstant().toEpochMilli();
+            series.coverage.add(new Range(Math.max(fetched.from, today), fetched.to, expiresAt));
+        }
+        if (fetched.from >= today) return;
+
+        Range merged = new Range(fetched.from, Math.min(fetched.to, today - 1), Long.MAX_VALUE);
+        for (Iterator<Range> it = series.coverage.iterator(); it.hasNext(); ) {
+            Range range = it.next();
+            if (range.expiresAt != Long.MAX_VALUE || !range.overlaps(merged.from - 1, merged.to + 1)) continue;
+            merged = new Range(Math.min(range.from, merged.from), Math.max(range.to, merged.to), Long.MAX_VALUE);
+            it.remove();
+        }
+        series.coverage.add(merged);
+    }
+
+    /**
+     * Finds the parts of a range of days that no taken range covers.
+     *
+     * @return The uncovered parts in date order
+     */
+    private static List<DateWindow> gaps(long first, long last, List<Range> taken) {
+        List<DateWindow> gaps = new ArrayList<>();
+        long cursor = first;
+
+        for (Range range : taken.stream().sorted(Comparator.comparingLong(Range::from)).toList()) {
+            if (range.to < cursor || range.from > last) continue;
+            if (range.from > cursor) gaps.add(window(cursor, range.from - 1));
+            cursor = Math.max(cursor, range.to + 1);
+            if (cursor > last) return gaps;
+        }
+
+        if (cursor <= last) gaps.add(window(cursor, last));
+        return gaps;
+    }
+
+    private static DateWindow window(long from, long to) {
+        return new DateWindow(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to));
+    }
+
+    /**
+     * An inclusive range of days since 1970-01-01 and the time it stops being valid.
+     *
+     * @param from The first day of the range
+     * @param to The last day of the range
+     * @param expiresAt When the range stops being valid, in epoch milliseconds, or Long.MAX_VALUE if it never does
+     */
+    private record Range(long from, long to, long expiresAt) {
+
+        boolean overlaps(long first, long last) {
+            return from <= last && to >= first;
+        }
+    }
+
+    /**
+     * A range being fetched, the publication days actually requested and the future completed with its data points.
+     */
+    private record Pending(Range range, DateWindow window, CompletableFuture<PrimitiveSeries> done) { }
+
+    /**
+     * The ranges of a series that were fetched and the ranges being fetched.
+     */
+    private static final class CachedSeries {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String idSerie;
+        private final List<Range> coverage = new ArrayList<>();
+        private final List<Pending> pending = new ArrayList<>();
+
+        private CachedSeries(String idSerie) {
+            this.idSerie = idSerie;
+        }
+    }
+
+}
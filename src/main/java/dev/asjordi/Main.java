@@ -1,5 +1,6 @@
 package dev.asjordi;
 
+import dev.asjordi.daemon.DaemonRunner;
 import dev.asjordi.logger.LoggerConfig;
 import java.util.logging.*;
 
@@ -10,19 +11,26 @@ import java.util.logging.*;
 public class Main {
 
     private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final String DAEMON_FLAG = "--daemon";
 
     /**
      * The main method that starts the application.
-     * It sets up the logger and initiates the BMX data processing.
+     * It sets up the logger and initiates the BMX data processing, either once
+     * or as a long-running daemon on a daily schedule.
      * 
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments, "--daemon" to run as a daemon
      */
     public static void main( String[] args ) {
         LoggerConfig.setupLogger();
         LOGGER.log(Level.INFO, () -> "Starting BMX Data Processor");
 
         BmxDataProcessor bmxDataProcessor = new BmxDataProcessor();
-        bmxDataProcessor.processData();
+
+        if (args.length > 0 && DAEMON_FLAG.equals(args[0])) {
+            new DaemonRunner(bmxDataProcessor).run();
+        } else {
+            bmxDataProcessor.processData();
+        }
     }
 
 }
@@ -0,0 +1,129 @@
+package dev.asjordi.analytics;
+
+import dev.asjordi.index.IndexedSeries;
+import dev.asjordi.index.SeriesIndex;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps rolling averages, rolling minimums and maximums, volatility and weekly and
+ * monthly OHLC bars of every series up to date as data points are merged.
+ * Data points appended after the last aggregated date cost O(1) each. A change to an
+ * already aggregated date recomputes that series from scratch, which only happens
+ * when the BMX API revises past data.
+ */
+public class AggregateEngine {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    private final Map<String, SeriesAggregator> aggregators = new HashMap<>();
+    private final Set<String> changed = new LinkedHashSet<>();
+
+    /**
+     * Restores the statistics of every series in the index from their persisted form,
+     * applying the data points stored after them, including the data points just merged.
+     * Series without persisted statistics, and series whose merged data points change
+     * already aggregated dates, are computed from scratch.
+     * Only the series that were computed or received data points are marked as changed.
+     *
+     * @param index The BMX data, after the data points were merged
+     * @param persisted Reads the persisted statistics of a series by identifier
+     * @param addedData The data points that were added or changed, by series identifier
+     */
+    public synchronized void restore(SeriesIndex index, Function<String, Optional<SeriesAggregates>> persisted,
+                                     Map<String, PrimitiveSeries> addedData) {
+        aggregators.clear();
+
+        for (IndexedSeries series : index.all()) {
+            String id = series.getIdSerie();
+            PrimitiveSeries added = addedData.get(id);
+            boolean hasAdded = added != null && !added.isEmpty();
+            var restored = persisted.apply(id)
+                    .filter(aggregates -> aggregates.getFecha() != null)
+                    .filter(aggregates -> !hasAdded || added.epochDay(0) > aggregates.getFecha().toEpochDay())
+                    .map(aggregates -> SeriesAggregator.restore(series, aggregates));
+
+            aggregators.put(id, restored.orElseGet(() -> SeriesAggregator.of(series)));
+            if (hasAdded || restored.isEmpty()) changed.add(id);
+        }
+
+        LOGGER.log(Level.INFO, () -> "Aggregates restored for " + aggregators.size() + " series");
+    }
+
+    /**
+     * Computes the statistics of every series in the index from scratch.
+     *
+     * @param index The BMX data
+     */
+    public synchronized void rebuild(SeriesIndex index) {
+        aggregators.clear();
+
+        for (IndexedSeries series : index.all()) {
+            aggregators.put(series.getIdSerie(), SeriesAggregator.of(series));
+            changed.add(series.getIdSerie());
+        }
+    }
+
+    /**
+     * Updates the statistics with the data points merged into the index.
+     *
+     * @param index The BMX data, after the data points were merged
+     * @param addedData The data points that were added or changed, by series identifier
+     */
+    public synchronized void apply(SeriesIndex index, Map<String, PrimitiveSeries> addedData) {
+        addedData.forEach((id, added) -> {
+            if (added.isEmpty()) return;
+
+            var series = index.get(id);
+            if (series.isEmpty()) return;
+
+            var aggregator = aggregators.get(id);
+            if (aggregator == null || added.epochDay(0) <= aggregator.getLastEpochDay()) {
+                LOGGER.log(Level.INFO, () -> "Recomputing aggregates of " + id);
+                aggregators.put(id, SeriesAggregator.of(series.get()));
+            } else {
+                for (int i = 0; i < added.size(); i++) aggregator.add(added.epochDay(i), added.value(i));
+            }
+
+            changed.add(id);
+        });
+    }
+
+    /**
+     * Gets the current statistics of a series.
+     *
+     * @param idSerie The series identifier
+     * @return The statistics, or empty if the series is unknown
+     */
+    public synchronized Optional<SeriesAggregates> get(String idSerie) {
+        return Optional.ofNullable(aggregators.get(idSerie)).map(SeriesAggregator::toAggregates);
+    }
+
+    /**
+     * Gets the statistics that changed since the last call, to be persisted.
+     *
+     * @return The changed statistics
+     */
+    public synchronized List<SeriesAggregates> drainChanged() {
+        List<SeriesAggregates> result = new ArrayList<>(changed.size());
+
+        for (String id : changed) {
+            var aggregator = aggregators.get(id);
+            if (aggregator != null) result.add(aggregator.toAggregates());
+        }
+
+        changed.clear();
+        return result;
+    }
+
+}
@@ -0,0 +1,260 @@
+package dev.asjordi.analytics;
+
+import dev.asjordi.index.AsOfSeries;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the cross rates between every pair of series for every calendar day.
+ * <p>
+ * Every series is expected to quote pesos per unit of a currency, as the Banxico exchange
+ * rate series do, so the rate of currency {@code j} per unit of currency {@code i} on a day
+ * is the rate of {@code i} divided by the rate of {@code j}. Series are published on
+ * different calendars, so each one is aligned through its {@link AsOfSeries} view, which
+ * carries its last value forward over the days it has no observation.
+ * <p>
+ * The N×N matrices of every day from the first present value to the last observation are
+ * kept in one dense array, so reading a rate is one array read. Full histories are computed
+ * in parallel by date range. Merged data points only recompute the days from the first
+ * changed date onwards, which for a new business day is a single matrix.
+ * Cross rates are derived values, kept as doubles, with NaN where a series has no rate yet.
+ * Reads may run concurrently with each other and wait only for an update in progress.
+ */
+public class CrossRateEngine {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final int DAYS_PER_TASK = 512;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private List<String> ids = List.of();
+    private Map<String, Integer> positions = Map.of();
+    private AsOfSeries[] views = new AsOfSeries[0];
+    private boolean built;
+    private int firstDay;
+    private int days;
+    private double[] matrices = new double[0];
+
+    /**
+     * Computes the cross rates of every day from scratch.
+     *
+     * @param series The series, each quoting pesos per unit of a currency
+     */
+    public void rebuild(Collection<PrimitiveSeries> series) {
+        lock.writeLock().lock();
+        try {
+            List<String> newIds = new ArrayList<>(series.size());
+            Map<String, Integer> newPositions = new HashMap<>();
+            AsOfSeries[] newViews = new AsOfSeries[series.size()];
+
+            for (PrimitiveSeries serie : series) {
+                newPositions.put(serie.getIdSerie(), newIds.size());
+                newViews[newIds.size()] = AsOfSeries.of(serie);
+                newIds.add(serie.getIdSerie());
+            }
+
+            ids = List.copyOf(newIds);
+            positions = newPositions;
+            views = newViews;
+            firstDay = Arrays.stream(views).filter(view -> !view.isEmpty())
+                    .mapToInt(AsOfSeries::getFirstDay).min().orElse(0);
+            days = Math.max(0, lastDay() - firstDay + 1);
+            matrices = new double[days * ids.size() * ids.size()];
+            fill(0, days);
+            built = true;
+
+            LOGGER.log(Level.INFO, () -> "Cross rates computed for " + ids.size() + " series over " + days + " days");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the cross rates with the data points merged into the series.
+     * Computes everything from scratch the first time, when the series changed, or when
+     * a data point falls before the first day kept.
+     *
+     * @param series Every series, after the data points were merged
+     * @param addedData The data points that were added or changed, by series identifier
+     */
+    public void apply(Collection<PrimitiveSeries> series, Map<String, PrimitiveSeries> addedData) {
+        lock.writeLock().lock();
+        try {
+            if (!built || !ids.equals(series.stream().map(PrimitiveSeries::getIdSerie).toList())) {
+                rebuild(series);
+                return;
+            }
+
+            int earliest = Integer.MAX_VALUE;
+            for (PrimitiveSeries serie : series) {
+                PrimitiveSeries added = addedData.get(serie.getIdSerie());
+                if (added == null || added.isEmpty()) continue;
+
+                AsOfSeries view = AsOfSeries.of(serie);
+                if (!view.isEmpty() && view.getFirstDay() < firstDay) {
+                    rebuild(series);
+                    return;
+                }
+
+                views[positions.get(serie.getIdSerie())] = view;
+                earliest = Math.min(earliest, added.epochDay(0));
+            }
+
+            if (earliest == Integer.MAX_VALUE) return;
+
+            int from = Math.max(0, Math.min(earliest - firstDay, days));
+            int newDays = Math.max(days, lastDay() - firstDay + 1);
+            int cells = ids.size() * ids.size();
+            if (newDays * cells > matrices.length) {
+                matrices = Arrays.copyOf(matrices, Math.max(newDays, days + days / 2) * cells);
+            }
+
+            days = newDays;
+            fill(from, newDays);
+            LOGGER.log(Level.INFO, () -> "Cross rates updated for " + (newDays - from) + " days");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The identifiers of the series, in matrix order
+     */
+    public List<String> getSeries() {
+        lock.readLock().lock();
+        try {
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The last day with cross rates as days since 1970-01-01, or empty if there are none
+     */
+    public OptionalInt lastEpochDay() {
+        lock.readLock().lock();
+        try {
+            return days == 0 ? OptionalInt.empty() : OptionalInt.of(firstDay + days - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the cross rate between two series on a date.
+     * Dates after the last observation use the latest rates.
+     *
+     * @param base The identifier of the series quoting the currency to convert from
+     * @param quote The identifier of the series quoting the currency to convert to
+     * @param epochDay The date as days since 1970-01-01
+     * @return The units of the quote currency per unit of the base currency, or NaN if there is no rate
+     */
+    public double rate(String base, String quote, int epochDay) {
+        lock.readLock().lock();
+        try {
+            Integer i = positions.get(base);
+            Integer j = positions.get(quote);
+            int day = dayOffset(epochDay);
+            if (i == null || j == null || day < 0) return Double.NaN;
+
+            int n = ids.size();
+            return matrices[day * n * n + i * n + j];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the cross rates between every pair of series on a date.
+     * Dates after the last observation use the latest rates.
+     *
+     * @param epochDay The date as days since 1970-01-01
+     * @return The matrix of rates, or an empty Optional if the date is before every rate
+     */
+    public Optional<Matrix> matrix(int epochDay) {
+        lock.readLock().lock();
+        try {
+            int day = dayOffset(epochDay);
+            if (day < 0) return Optional.empty();
+
+            int n = ids.size();
+            double[][] rates = new double[n][];
+            for (int i = 0; i < n; i++) {
+                int start = day * n * n + i * n;
+                rates[i] = Arrays.copyOfRange(matrices, start, start + n);
+            }
+            return Optional.of(new Matrix(ids, rates));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The position of a date in the matrices, the last day for later dates, or -1 if it is not kept
+     */
+    private int dayOffset(int epochDay) {
+        if (days == 0 || epochDay < firstDay) return -1;
+        return (int) Math.min((long) epochDay - firstDay, days - 1);
+    }
+
+    private int lastDay() {
+        return Arrays.stream(views).mapToInt(AsOfSeries::getLastDay).max().orElse(-1);
+    }
+
+    /**
+     * Computes the matrices of a range of days, splitting long ranges into parallel tasks.
+     */
+    private void fill(int from, int to) {
+        if (to - from <= DAYS_PER_TASK) {
+            fillRange(from, to);
+            return;
+        }
+
+        int tasks = (to - from + DAYS_PER_TASK - 1) / DAYS_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int start = from + task * DAYS_PER_TASK;
+            fillRange(start, Math.min(to, start + DAYS_PER_TASK));
+        });
+    }
+
+    private void fillRange(int from, int to) {
+        int n = ids.size();
+        long[] rates = new long[n];
+
+        for (int day = from; day < to; day++) {
+            for (int i = 0; i < n; i++) rates[i] = views[i].valueAt(firstDay + day);
+
+            int base = day * n * n;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    boolean missing = rates[i] == FixedPoint.MISSING || rates[j] == FixedPoint.MISSING;
+                    matrices[base + i * n + j] = missing ? Double.NaN : (double) rates[i] / rates[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Cross rates between every pair of series on one day.
+     *
+     * @param series The identifiers of the series, in matrix order
+     * @param rates Row {@code i} and column {@code j} hold the units of the currency of series
+     *              {@code j} per unit of the currency of series {@code i}, NaN if there is no rate
+     */
+    public record Matrix(List<String> series, double[][] rates) { }
+
+}
@@ -0,0 +1,50 @@
+package dev.asjordi.analytics;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Open, high, low and close values of a series over a week or a month.
+ * Uses Lombok to generate boilerplate code and Jackson annotations for JSON processing.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OhlcBar {
+    /**
+     * The first day of the period.
+     * Formatted as "dd/MM/yyyy" in the JSON data.
+     */
+    @JsonProperty("periodo")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+    private LocalDate periodo;
+
+    /**
+     * The first value of the period.
+     */
+    @JsonProperty("apertura")
+    private String apertura;
+
+    /**
+     * The highest value of the period.
+     */
+    @JsonProperty("maximo")
+    private String maximo;
+
+    /**
+     * The lowest value of the period.
+     */
+    @JsonProperty("minimo")
+    private String minimo;
+
+    /**
+     * The last value of the period.
+     */
+    @JsonProperty("cierre")
+    private String cierre;
+
+}
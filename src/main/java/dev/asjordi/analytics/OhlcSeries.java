@@ -0,0 +1,141 @@
+package dev.asjordi.analytics;
+
+import dev.asjordi.util.FixedPoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open, high, low and close bars of a series over calendar periods.
+ * Bars are kept in primitive columns; a value in the current period updates the
+ * last bar and a value in a later period starts a new one, both in O(1).
+ */
+class OhlcSeries {
+
+    /**
+     * Calendar period covered by a bar.
+     */
+    enum Period {
+        /** Weeks starting on Monday. */
+        WEEK,
+        /** Calendar months. */
+        MONTH;
+
+        /**
+         * Gets the first day of the period containing a date.
+         *
+         * @param epochDay The date as epoch day
+         * @return The first day of its period as epoch day
+         */
+        int start(int epochDay) {
+            return switch (this) {
+                case WEEK -> epochDay - Math.floorMod(epochDay + 3, 7);
+                case MONTH -> (int) LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+            };
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Period period;
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private long[] open = new long[INITIAL_CAPACITY];
+    private long[] high = new long[INITIAL_CAPACITY];
+    private long[] low = new long[INITIAL_CAPACITY];
+    private long[] close = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Creates an empty bar series.
+     *
+     * @param period The period covered by each bar
+     */
+    OhlcSeries(Period period) {
+        this.period = period;
+    }
+
+    /**
+     * Adds the next value of the series. Values must come in date order.
+     *
+     * @param epochDay The date of the value
+     * @param value The value scaled by {@link FixedPoint#FACTOR}
+     */
+    void add(int epochDay, long value) {
+        int start = period.start(epochDay);
+        int last = size - 1;
+
+        if (size > 0 && starts[last] == start) {
+            high[last] = Math.max(high[last], value);
+            low[last] = Math.min(low[last], value);
+            close[last] = value;
+        } else {
+            addBar(start, value, value, value, value);
+        }
+    }
+
+    /**
+     * Restores a bar read from persisted aggregates.
+     */
+    void addBar(int start, long o, long h, long l, long c) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+        }
+
+        starts[size] = start;
+        open[size] = o;
+        high[size] = h;
+        low[size] = l;
+        close[size] = c;
+        size++;
+    }
+
+    /**
+     * Converts the bars to their persisted form.
+     *
+     * @return The bars in date order
+     */
+    List<OhlcBar> toBars() {
+        List<OhlcBar> bars = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            OhlcBar bar = new OhlcBar();
+            bar.setPeriodo(LocalDate.ofEpochDay(starts[i]));
+            bar.setApertura(FixedPoint.format(open[i]));
+            bar.setMaximo(FixedPoint.format(high[i]));
+            bar.setMinimo(FixedPoint.format(low[i]));
+            bar.setCierre(FixedPoint.format(close[i]));
+            bars.add(bar);
+        }
+
+        return bars;
+    }
+
+    /**
+     * Restores bars from their persisted form.
+     *
+     * @param period The period covered by each bar
+     * @param bars The persisted bars in date order, may be null
+     * @return The bar series
+     */
+    static OhlcSeries fromBars(Period period, List<OhlcBar> bars) {
+        OhlcSeries series = new OhlcSeries(period);
+        if (bars == null) return series;
+
+        for (OhlcBar bar : bars) {
+            series.addBar((int) bar.getPeriodo().toEpochDay(),
+                    FixedPoint.parse(bar.getApertura()),
+                    FixedPoint.parse(bar.getMaximo()),
+                    FixedPoint.parse(bar.getMinimo()),
+                    FixedPoint.parse(bar.getCierre()));
+        }
+
+        return series;
+    }
+
+}
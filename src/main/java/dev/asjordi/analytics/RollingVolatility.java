@@ -0,0 +1,65 @@
+package dev.asjordi.analytics;
+
+import dev.asjordi.util.FixedPoint;
+
+/**
+ * Sliding standard deviation of daily log returns.
+ * Keeps running sums of the returns and their squares, so adding a value and
+ * reading the volatility are O(1).
+ */
+class RollingVolatility {
+
+    private static final double TRADING_DAYS_PER_YEAR = 252;
+
+    private final int capacity;
+    private final double[] returns;
+    private int count;
+    private double sum;
+    private double sumSquares;
+    private long previous = FixedPoint.MISSING;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param capacity The number of returns in a full window
+     */
+    RollingVolatility(int capacity) {
+        this.capacity = capacity;
+        this.returns = new double[capacity];
+    }
+
+    /**
+     * Adds the next value of the series, adding its return over the previous value.
+     *
+     * @param value The value scaled by {@link FixedPoint#FACTOR}
+     */
+    void add(long value) {
+        if (previous != FixedPoint.MISSING && previous > 0 && value > 0) {
+            double r = Math.log((double) value / previous);
+            int slot = count % capacity;
+            if (count >= capacity) {
+                sum -= returns[slot];
+                sumSquares -= returns[slot] * returns[slot];
+            }
+            returns[slot] = r;
+            sum += r;
+            sumSquares += r * r;
+            count++;
+        }
+        previous = value;
+    }
+
+    /**
+     * Gets the annualized volatility of the window as a percentage.
+     *
+     * @return The volatility scaled by {@link FixedPoint#FACTOR}, or {@link FixedPoint#MISSING} until the window is full
+     */
+    long annualizedPercent() {
+        if (count < capacity) return FixedPoint.MISSING;
+
+        double variance = Math.max(0, (sumSquares - sum * sum / capacity) / (capacity - 1));
+        double percent = Math.sqrt(variance * TRADING_DAYS_PER_YEAR) * 100;
+        return Math.round(percent * FixedPoint.FACTOR);
+    }
+
+}
@@ -0,0 +1,96 @@
+package dev.asjordi.analytics;
+
+import dev.asjordi.util.FixedPoint;
+
+/**
+ * Fixed-size sliding window over fixed-point values.
+ * Keeps a running sum for the mean and two monotonic deques for the minimum and
+ * maximum, so adding a value and reading any statistic are O(1).
+ */
+class RollingWindow {
+
+    private final int capacity;
+    private final long[] values;
+    private final long[] minDeque;
+    private final long[] maxDeque;
+    private int minHead, minSize, maxHead, maxSize;
+    private long count;
+    private long sum;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param capacity The number of values in a full window
+     */
+    RollingWindow(int capacity) {
+        this.capacity = capacity;
+        this.values = new long[capacity];
+        this.minDeque = new long[capacity];
+        this.maxDeque = new long[capacity];
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds a value, evicting the oldest one when the window is full.
+     *
+     * @param value The value scaled by {@link FixedPoint#FACTOR}
+     */
+    void add(long value) {
+        long seq = count++;
+        int slot = (int) (seq % capacity);
+        if (seq >= capacity) sum -= values[slot];
+        values[slot] = value;
+        sum += value;
+
+        long expired = seq - capacity;
+        while (minSize > 0 && minDeque[minHead] <= expired) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        while (maxSize > 0 && maxDeque[maxHead] <= expired) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+        while (minSize > 0 && valueAt(minDeque[(minHead + minSize - 1) % capacity]) >= value) minSize--;
+        while (maxSize > 0 && valueAt(maxDeque[(maxHead + maxSize - 1) % capacity]) <= value) maxSize--;
+
+        minDeque[(minHead + minSize++) % capacity] = seq;
+        maxDeque[(maxHead + maxSize++) % capacity] = seq;
+    }
+
+    /**
+     * @return true once the window holds {@code capacity} values
+     */
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    /**
+     * @return The mean of the window, or {@link FixedPoint#MISSING} until it is full
+     */
+    long mean() {
+        return isFull() ? Math.round((double) sum / capacity) : FixedPoint.MISSING;
+    }
+
+    /**
+     * @return The minimum of the window, or {@link FixedPoint#MISSING} until it is full
+     */
+    long min() {
+        return isFull() ? valueAt(minDeque[minHead]) : FixedPoint.MISSING;
+    }
+
+    /**
+     * @return The maximum of the window, or {@link FixedPoint#MISSING} until it is full
+     */
+    long max() {
+        return isFull() ? valueAt(maxDeque[maxHead]) : FixedPoint.MISSING;
+    }
+
+    private long valueAt(long seq) {
+        return values[(int) (seq % capacity)];
+    }
+
+}
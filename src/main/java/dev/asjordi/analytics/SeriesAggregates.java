@@ -0,0 +1,71 @@
+package dev.asjordi.analytics;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated statistics of a series, as of its last data point.
+ * Persisted next to the series so they can be read without scanning its history.
+ * Uses Lombok to generate boilerplate code and Jackson annotations for JSON processing.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SeriesAggregates {
+    /**
+     * The unique identifier of the series in the BMX API.
+     */
+    @JsonProperty("idSerie")
+    private String idSerie;
+
+    /**
+     * The date of the last data point included in the statistics.
+     * Formatted as "dd/MM/yyyy" in the JSON data.
+     */
+    @JsonProperty("fecha")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+    private LocalDate fecha;
+
+    /**
+     * Moving averages by window length in data points.
+     */
+    @JsonProperty("media")
+    private Map<Integer, String> media;
+
+    /**
+     * Rolling minimums by window length in data points.
+     */
+    @JsonProperty("minimo")
+    private Map<Integer, String> minimo;
+
+    /**
+     * Rolling maximums by window length in data points.
+     */
+    @JsonProperty("maximo")
+    private Map<Integer, String> maximo;
+
+    /**
+     * Annualized volatility of the daily log returns, as a percentage.
+     */
+    @JsonProperty("volatilidad")
+    private String volatilidad;
+
+    /**
+     * Weekly bars, starting on Monday.
+     */
+    @JsonProperty("semanal")
+    private List<OhlcBar> semanal;
+
+    /**
+     * Monthly bars.
+     */
+    @JsonProperty("mensual")
+    private List<OhlcBar> mensual;
+
+}
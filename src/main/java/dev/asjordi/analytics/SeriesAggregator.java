@@ -0,0 +1,144 @@
+package dev.asjordi.analytics;
+
+import dev.asjordi.index.IndexedSeries;
+import dev.asjordi.util.FixedPoint;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Incremental statistics of a single series.
+ * Each data point appended after the last one updates every statistic in O(1).
+ * Missing values are skipped.
+ */
+class SeriesAggregator {
+
+    static final int[] WINDOWS = {20, 50, 200};
+    static final int VOLATILITY_WINDOW = 20;
+    private static final int PRIMING_POINTS = Math.max(WINDOWS[WINDOWS.length - 1], VOLATILITY_WINDOW + 1);
+
+    private final String idSerie;
+    private final RollingWindow[] windows = new RollingWindow[WINDOWS.length];
+    private final RollingVolatility volatility = new RollingVolatility(VOLATILITY_WINDOW);
+    private final OhlcSeries weekly;
+    private final OhlcSeries monthly;
+    private int lastEpochDay = Integer.MIN_VALUE;
+
+    private SeriesAggregator(String idSerie, OhlcSeries weekly, OhlcSeries monthly) {
+        this.idSerie = idSerie;
+        this.weekly = weekly;
+        this.monthly = monthly;
+        for (int i = 0; i < WINDOWS.length; i++) windows[i] = new RollingWindow(WINDOWS[i]);
+    }
+
+    /**
+     * Computes the statistics of a whole series.
+     *
+     * @param series The series to aggregate
+     * @return The aggregator positioned at the last data point
+     */
+    static SeriesAggregator of(IndexedSeries series) {
+        SeriesAggregator aggregator = new SeriesAggregator(series.getIdSerie(),
+                new OhlcSeries(OhlcSeries.Period.WEEK), new OhlcSeries(OhlcSeries.Period.MONTH));
+        aggregator.addFrom(series, 0);
+        return aggregator;
+    }
+
+    /**
+     * Restores persisted statistics and brings them up to date with the series.
+     * The bars are read back as persisted, and the rolling windows are refilled from
+     * the last points up to the persisted date, so only a bounded tail of the series is read.
+     * Falls back to {@link #of(IndexedSeries)} when the persisted date is not in the series.
+     *
+     * @param series The series to aggregate
+     * @param persisted The statistics persisted by a previous run
+     * @return The aggregator positioned at the last data point
+     */
+    static SeriesAggregator restore(IndexedSeries series, SeriesAggregates persisted) {
+        int end = persisted.getFecha() == null ? -1 : series.indexOf((int) persisted.getFecha().toEpochDay());
+        if (end < 0) return of(series);
+
+        SeriesAggregator aggregator = new SeriesAggregator(series.getIdSerie(),
+                OhlcSeries.fromBars(OhlcSeries.Period.WEEK, persisted.getSemanal()),
+                OhlcSeries.fromBars(OhlcSeries.Period.MONTH, persisted.getMensual()));
+
+        int start = end;
+        for (int points = 0; start > 0 && points < PRIMING_POINTS; start--) {
+            if (series.value(start) != FixedPoint.MISSING) points++;
+        }
+        for (int i = start; i <= end; i++) {
+            long value = series.value(i);
+            if (value != FixedPoint.MISSING) aggregator.addToWindows(value);
+        }
+
+        aggregator.lastEpochDay = series.epochDay(end);
+        aggregator.addFrom(series, end + 1);
+        return aggregator;
+    }
+
+    /**
+     * @return The date of the last data point included, as epoch day
+     */
+    int getLastEpochDay() {
+        return lastEpochDay;
+    }
+
+    /**
+     * Adds the data points of a series from a position to its end.
+     *
+     * @param series The series holding the data points
+     * @param from The position of the first data point to add
+     */
+    void addFrom(IndexedSeries series, int from) {
+        for (int i = from; i < series.size(); i++) add(series.epochDay(i), series.value(i));
+    }
+
+    /**
+     * Adds a data point after the last one.
+     *
+     * @param epochDay The date of the data point, after {@link #getLastEpochDay()}
+     * @param value The value scaled by {@link FixedPoint#FACTOR}
+     */
+    void add(int epochDay, long value) {
+        lastEpochDay = epochDay;
+        if (value == FixedPoint.MISSING) return;
+
+        addToWindows(value);
+        weekly.add(epochDay, value);
+        monthly.add(epochDay, value);
+    }
+
+    private void addToWindows(long value) {
+        for (RollingWindow window : windows) window.add(value);
+        volatility.add(value);
+    }
+
+    /**
+     * Converts the current statistics to their persisted form.
+     *
+     * @return The statistics of the series
+     */
+    SeriesAggregates toAggregates() {
+        Map<Integer, String> media = new LinkedHashMap<>();
+        Map<Integer, String> minimo = new LinkedHashMap<>();
+        Map<Integer, String> maximo = new LinkedHashMap<>();
+
+        for (RollingWindow window : windows) {
+            media.put(window.getCapacity(), FixedPoint.format(window.mean()));
+            minimo.put(window.getCapacity(), FixedPoint.format(window.min()));
+            maximo.put(window.getCapacity(), FixedPoint.format(window.max()));
+        }
+
+        SeriesAggregates aggregates = new SeriesAggregates();
+        aggregates.setIdSerie(idSerie);
+        if (lastEpochDay != Integer.MIN_VALUE) aggregates.setFecha(LocalDate.ofEpochDay(lastEpochDay));
+        aggregates.setMedia(media);
+        aggregates.setMinimo(minimo);
+        aggregates.setMaximo(maximo);
+        aggregates.setVolatilidad(FixedPoint.format(volatility.annualizedPercent()));
+        aggregates.setSemanal(weekly.toBars());
+        aggregates.setMensual(monthly.toBars());
+        return aggregates;
+    }
+
+}
@@ -0,0 +1,466 @@
+package dev.asjordi.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import dev.asjordi.analytics.CrossRateEngine;
+import dev.asjordi.codec.SeriesEncoder;
+import dev.asjordi.index.AsOfSeries;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.metrics.Metrics;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import dev.asjordi.util.JsonText;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded HTTP API to query exchange rates from the in-memory data.
+ * Runs on the JDK {@link HttpServer} with one virtual thread per exchange and answers
+ * from immutable {@link PrimitiveSeries} snapshots, so queries never touch the disk
+ * and never wait for a data processing run. Rates on a date are resolved in O(1)
+ * through the {@link AsOfSeries} view of each series.
+ * <p>
+ * Endpoints, with dates in yyyy-MM-dd format:
+ * <ul>
+ *   <li>{@code GET /rates/{idSerie}/latest}: the most recent rate</li>
+ *   <li>{@code GET /rates/{idSerie}?date=}: the rate in effect on a date</li>
+ *   <li>{@code GET /rates/{idSerie}/range?from=&to=}: every rate in a range, streamed as JSON,
+ *       or in the compact binary series format of {@link SeriesEncoder} when the request
+ *       accepts {@value #SERIES_MIME_TYPE}</li>
+ *   <li>{@code GET /convert/{idSerie}?amount=&date=[&inverse=true]}: converts an amount
+ *       of foreign currency to pesos, or pesos to foreign currency when inverse</li>
+ *   <li>{@code GET /cross/{base}/{quote}?date=}: the units of the currency of the quote series
+ *       per unit of the currency of the base series, on a date or the latest</li>
+ *   <li>{@code GET /cross/matrix?date=}: the cross rates between every pair of series</li>
+ *   <li>{@code GET /metrics}: processing stage metrics in the Prometheus text format</li>
+ * </ul>
+ */
+public class RateApiServer {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    private static final DateTimeFormatter FECHA_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String JSON_MIME_TYPE = "application/json";
+    private static final String SERIES_MIME_TYPE = "application/vnd.bmx.series";
+    private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String ACCEPT_HEADER = "Accept";
+    private static final String METRICS_MIME_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final MathContext CROSS_RATE_PRECISION = new MathContext(10);
+    private static final int MAX_AMOUNT_LENGTH = 40;
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 15;
+    private static final int MAX_AMOUNT_FRACTION_DIGITS = 10;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Supplier<Map<String, PrimitiveSeries>> data;
+    private final CrossRateEngine crossRates;
+    private final Map<String, AsOfSeries> asOfViews = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a server bound to the given port of the loopback interface.
+     *
+     * @param port The port to listen on, 0 for any free port
+     * @param data Supplier of the latest snapshot of every series by identifier
+     * @throws IOException if the port cannot be bound
+     */
+    public RateApiServer(int port, Supplier<Map<String, PrimitiveSeries>> data) throws IOException {
+        this(port, data, new CrossRateEngine());
+    }
+
+    /**
+     * Creates a server bound to the given port of the loopback interface that also serves cross rates.
+     *
+     * @param port The port to listen on, 0 for any free port
+     * @param data Supplier of the latest snapshot of every series by identifier
+     * @param crossRates The cross rates between every pair of series, kept up to date by the processor
+     * @throws IOException if the port cannot be bound
+     */
+    public RateApiServer(int port, Supplier<Map<String, PrimitiveSeries>> data, CrossRateEngine crossRates) throws IOException {
+        this(InetAddress.getLoopbackAddress().getHostAddress(), port, data, crossRates);
+    }
+
+    /**
+     * Creates a server bound to the given address and port that also serves cross rates.
+     *
+     * @param host The address to listen on, such as 127.0.0.1 for local clients only or 0.0.0.0 for every interface
+     * @param port The port to listen on, 0 for any free port
+     * @param data Supplier of the latest snapshot of every series by identifier
+     * @param crossRates The cross rates between every pair of series, kept up to date by the processor
+     * @throws IOException if the address cannot be bound
+     */
+    public RateApiServer(String host, int port, Supplier<Map<String, PrimitiveSeries>> data,
+                         CrossRateEngine crossRates) throws IOException {
+        this.data = data;
+        this.crossRates = crossRates;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/rates/", get(this::queryRates));
+        this.server.createContext("/convert/", get(this::convert));
+        this.server.createContext("/cross/", get(this::queryCrossRates));
+        this.server.createContext("/metrics", get(RateApiServer::scrapeMetrics));
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        server.start();
+        LOGGER.log(Level.INFO, () -> "Rate API listening on " + server.getAddress().getHostString() + ":" + getPort());
+    }
+
+    /**
+     * Stops the server, giving exchanges in progress a moment to finish.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+        LOGGER.log(Level.INFO, () -> "Rate API stopped");
+    }
+
+    /**
+     * @return The port the server is bound to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers GET exchanges with the given handler and closes them.
+     * Invalid parameters are answered with a 400 response.
+     *
+     * @param handler The handler writing the response
+     * @return A handler for the server context
+     */
+    private static HttpHandler get(HttpHandler handler) {
+        return exchange -> {
+            try (exchange) {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    sendError(exchange, 405, "Method not allowed");
+                    return;
+                }
+
+                try {
+                    handler.handle(exchange);
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    sendError(exchange, 400, e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Answers the latest, as-of date and range rate queries.
+     */
+    private void queryRates(HttpExchange exchange) throws IOException {
+        String[] path = pathSegments(exchange, "/rates/");
+        Map<String, String> query = query(exchange);
+        PrimitiveSeries series = path.length > 0 ? data.get().get(path[0]) : null;
+
+        if (series == null || series.isEmpty()) {
+            sendError(exchange, 404, "Unknown series");
+            return;
+        }
+
+        if (path.length == 2 && "latest".equals(path[1])) {
+            sendRate(exchange, series, asOf(series, Integer.MAX_VALUE));
+        } else if (path.length == 2 && "range".equals(path[1])) {
+            int from = parseDate(query.get("from"));
+            int to = parseDate(query.get("to"));
+            if (acceptsSeries(exchange)) streamEncodedRange(exchange, series, from, to);
+            else streamRange(exchange, series, from, to);
+        } else if (path.length == 1) {
+            sendRate(exchange, series, asOf(series, parseDate(query.get("date"))));
+        } else {
+            sendError(exchange, 404, "Unknown endpoint");
+        }
+    }
+
+    /**
+     * Answers amount conversions using the rate in effect on the requested date, or the latest rate.
+     */
+    private void convert(HttpExchange exchange) throws IOException {
+        String[] path = pathSegments(exchange, "/convert/");
+        Map<String, String> query = query(exchange);
+        PrimitiveSeries series = path.length == 1 ? data.get().get(path[0]) : null;
+
+        if (series == null || series.isEmpty()) {
+            sendError(exchange, 404, "Unknown series");
+            return;
+        }
+
+        BigDecimal amount = parseAmount(query.get("amount"));
+        int index = asOf(series, query.containsKey("date") ? parseDate(query.get("date")) : Integer.MAX_VALUE);
+        if (index < 0) {
+            sendError(exchange, 404, "No rate for date");
+            return;
+        }
+
+        BigDecimal rate = BigDecimal.valueOf(series.value(index), FixedPoint.SCALE);
+        BigDecimal result = Boolean.parseBoolean(query.get("inverse"))
+                ? amount.divide(rate, FixedPoint.SCALE, RoundingMode.HALF_EVEN)
+                : amount.multiply(rate).setScale(FixedPoint.SCALE, RoundingMode.HALF_EVEN);
+
+        send(exchange, 200, "{\"idSerie\":\"" + series.getIdSerie()
+                + "\",\"fecha\":\"" + fecha(series.epochDay(index))
+                + "\",\"dato\":\"" + FixedPoint.format(series.value(index))
+                + "\",\"amount\":\"" + amount.toPlainString()
+                + "\",\"result\":\"" + result.toPlainString() + "\"}");
+    }
+
+    /**
+     * Answers the cross rate between two series, or between every pair of series,
+     * on the requested date or the latest date.
+     */
+    private void queryCrossRates(HttpExchange exchange) throws IOException {
+        String[] path = pathSegments(exchange, "/cross/");
+        Map<String, String> query = query(exchange);
+        var lastDay = crossRates.lastEpochDay();
+
+        if (lastDay.isEmpty()) {
+            sendError(exchange, 404, "No cross rates");
+            return;
+        }
+
+        int epochDay = query.containsKey("date") ? parseDate(query.get("date")) : lastDay.getAsInt();
+        String fecha = fecha(Math.min(epochDay, lastDay.getAsInt()));
+
+        if (path.length == 2) {
+            List<String> series = crossRates.getSeries();
+            if (!series.contains(path[0]) || !series.contains(path[1])) {
+                sendError(exchange, 404, "Unknown series");
+                return;
+            }
+
+            double rate = crossRates.rate(path[0], path[1], epochDay);
+            if (Double.isNaN(rate)) {
+                sendError(exchange, 404, "No rate for date");
+                return;
+            }
+
+            send(exchange, 200, "{\"base\":\"" + path[0] + "\",\"quote\":\"" + path[1]
+                    + "\",\"fecha\":\"" + fecha + "\",\"rate\":" + formatRate(rate) + "}");
+        } else if (path.length == 1 && "matrix".equals(path[0])) {
+            var matrix = crossRates.matrix(epochDay);
+            if (matrix.isEmpty()) {
+                sendError(exchange, 404, "No rate for date");
+                return;
+            }
+
+            List<String> series = matrix.get().series();
+            double[][] rates = matrix.get().rates();
+
+            StringBuilder json = new StringBuilder("{\"fecha\":\"").append(fecha).append("\",\"series\":[");
+            for (int i = 0; i < series.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append('"').append(series.get(i)).append('"');
+            }
+            json.append("],\"rates\":[");
+            for (int i = 0; i < series.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append('[');
+                for (int j = 0; j < series.size(); j++) {
+                    if (j > 0) json.append(',');
+                    json.append(formatRate(rates[i][j]));
+                }
+                json.append(']');
+            }
+            send(exchange, 200, json.append("]}").toString());
+        } else {
+            sendError(exchange, 404, "Unknown endpoint");
+        }
+    }
+
+    /**
+     * Formats a cross rate with ten significant digits, or null if it is missing.
+     */
+    private static String formatRate(double rate) {
+        if (Double.isNaN(rate)) return "null";
+        return BigDecimal.valueOf(rate).round(CROSS_RATE_PRECISION).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Answers with the current processing stage metrics.
+     */
+    private static void scrapeMetrics(HttpExchange exchange) throws IOException {
+        byte[] bytes = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, METRICS_MIME_TYPE);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Finds the last available observation on or before a date through the as-of view of the series.
+     * The view is built on the first query of each new snapshot of the series.
+     *
+     * @return The position of the observation, or -1 if there is none
+     */
+    private int asOf(PrimitiveSeries series, int epochDay) {
+        AsOfSeries view = asOfViews.get(series.getIdSerie());
+        if (view == null || view.getSeries() != series) {
+            view = AsOfSeries.of(series);
+            asOfViews.put(series.getIdSerie(), view);
+        }
+        return view.positionAt(epochDay);
+    }
+
+    private static void sendRate(HttpExchange exchange, PrimitiveSeries series, int index) throws IOException {
+        if (index < 0) {
+            sendError(exchange, 404, "No rate for date");
+            return;
+        }
+
+        send(exchange, 200, "{\"idSerie\":\"" + series.getIdSerie()
+                + "\",\"fecha\":\"" + fecha(series.epochDay(index))
+                + "\",\"dato\":\"" + FixedPoint.format(series.value(index)) + "\"}");
+    }
+
+    /**
+     * Writes the observations of a range as a JSON array with chunked encoding,
+     * one observation at a time, so the response is never built in memory.
+     */
+    private static void streamRange(HttpExchange exchange, PrimitiveSeries series, int from, int to) throws IOException {
+        int start = rangeStart(series, from, to);
+
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, JSON_MIME_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            writer.write("{\"idSerie\":\"" + series.getIdSerie() + "\",\"datos\":[");
+            for (int i = start; i < series.size() && series.epochDay(i) <= to; i++) {
+                if (i > start) writer.write(',');
+                writer.write("{\"dato\":\"");
+                writer.write(FixedPoint.format(series.value(i)));
+                writer.write("\",\"fecha\":\"");
+                writer.write(fecha(series.epochDay(i)));
+                writer.write("\"}");
+            }
+            writer.write("]}");
+        }
+    }
+
+    /**
+     * Writes the observations of a range in the compact binary series format with chunked
+     * encoding, one observation at a time.
+     */
+    private static void streamEncodedRange(HttpExchange exchange, PrimitiveSeries series, int from, int to) throws IOException {
+        int start = rangeStart(series, from, to);
+        int end = series.indexOf(to);
+        end = end < 0 ? -end - 1 : end + 1;
+
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, SERIES_MIME_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+
+        try (SeriesEncoder encoder = new SeriesEncoder(exchange.getResponseBody())) {
+            encoder.begin(series.getIdSerie(), series.getTitulo(), Math.max(0, end - start));
+            for (int i = start; i < end; i++) encoder.add(series.epochDay(i), series.value(i));
+        }
+    }
+
+    /**
+     * Finds the position of the first observation of a range.
+     */
+    private static int rangeStart(PrimitiveSeries series, int from, int to) {
+        if (from > to) throw new IllegalArgumentException("from must not be after to");
+
+        int start = series.indexOf(from);
+        return start < 0 ? -start - 1 : start;
+    }
+
+    private static boolean acceptsSeries(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst(ACCEPT_HEADER);
+        return accept != null && accept.contains(SERIES_MIME_TYPE);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, "{\"error\":\"" + JsonText.escape(message) + "\"}");
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, JSON_MIME_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String[] pathSegments(HttpExchange exchange, String prefix) {
+        String path = exchange.getRequestURI().getPath().substring(prefix.length());
+        return path.isEmpty() ? new String[0] : path.split("/");
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+
+        return params;
+    }
+
+    private static int parseDate(String value) {
+        if (value == null) throw new IllegalArgumentException("Missing date parameter");
+
+        try {
+            return (int) LocalDate.parse(value).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    /**
+     * Parses an amount, rejecting amounts too large or too precise to convert in constant time,
+     * such as 1e999999999, whose plain form has a billion digits.
+     */
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) throw new IllegalArgumentException("Missing amount parameter");
+        if (value.length() > MAX_AMOUNT_LENGTH) throw new IllegalArgumentException("Amount too long");
+
+        BigDecimal amount = new BigDecimal(value);
+        if (amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS) {
+            throw new IllegalArgumentException("Amount must have at most " + MAX_AMOUNT_INTEGER_DIGITS + " integer digits");
+        }
+        if (amount.scale() > MAX_AMOUNT_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Amount must have at most " + MAX_AMOUNT_FRACTION_DIGITS + " fractional digits");
+        }
+        return amount;
+    }
+
+    private static String fecha(int epochDay) {
+        return FECHA_FORMAT.format(LocalDate.ofEpochDay(epochDay));
+    }
+
+}
@@ -0,0 +1,26 @@
+package dev.asjordi.chart;
+
+/**
+ * File format a chart is written in.
+ */
+public enum ChartFormat {
+    /** Plain SVG. */
+    SVG(".svg"),
+    /** SVG compressed with gzip while it is written. */
+    SVGZ(".svgz"),
+    /** PNG raster image with the size of the chart. */
+    PNG(".png");
+
+    private final String extension;
+
+    ChartFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return The file extension, including the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,258 @@
+package dev.asjordi.chart;
+
+import dev.asjordi.config.AppConfig;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.metrics.Metrics;
+import dev.asjordi.metrics.Stage;
+import dev.asjordi.model.PrimitiveSeries;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Renders the chart views of the BMX data in parallel.
+ * Each series is charted over the last month, year, five years and its full history,
+ * in the configured {@link ChartFormat},
+ * and when there are several series they are also overlaid over the same ranges.
+ * The full history of the first series is still written to "chart.svg", or to the given main chart file.
+ * <p>
+ * Views are rendered on a bounded pool. A hash of the data points shown by each view
+ * is kept in "charts/hashes.properties", and views whose data did not change since
+ * they were last rendered are skipped.
+ */
+public class ChartJob {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final String DEFAULT_DIRECTORY = "charts";
+    private static final String HASHES_FILE = "hashes.properties";
+    private static final String MAIN_CHART = "chart.svg";
+    private static final String OVERLAY = "overlay";
+
+    /**
+     * Time range shown by a chart view, ending at the last data point.
+     */
+    enum Range {
+        ONE_MONTH("1M", Period.ofMonths(1)),
+        ONE_YEAR("1Y", Period.ofYears(1)),
+        FIVE_YEARS("5Y", Period.ofYears(5)),
+        MAX("MAX", null);
+
+        private final String label;
+        private final Period length;
+
+        Range(String label, Period length) {
+            this.label = label;
+            this.length = length;
+        }
+
+        /**
+         * Cuts a series to the range.
+         *
+         * @param series The series to cut
+         * @param lastEpochDay The last date of the view, as epoch day
+         * @return The data points within the range
+         */
+        PrimitiveSeries window(PrimitiveSeries series, int lastEpochDay) {
+            if (length == null) return series;
+            return series.since((int) LocalDate.ofEpochDay(lastEpochDay).minus(length).toEpochDay());
+        }
+    }
+
+    /**
+     * A chart to render: the series it shows, the file it is written to and its range label.
+     */
+    private record View(String key, Path path, ChartFormat format, List<PrimitiveSeries> series, String label) { }
+
+    private final Path directory;
+    private final Path mainChart;
+    private final int threads;
+    private final ChartFormat format;
+
+    /**
+     * Creates a job writing to the default "charts" directory with the configured pool size and format.
+     */
+    public ChartJob() {
+        this(Path.of(DEFAULT_DIRECTORY), AppConfig.getChartThreads(), AppConfig.getChartFormat());
+    }
+
+    /**
+     * Creates a job writing to the given directory.
+     *
+     * @param directory The directory the views are written to
+     * @param threads The number of charts rendered at the same time
+     * @param format The file format of the views, the main chart is always SVG
+     */
+    public ChartJob(Path directory, int threads, ChartFormat format) {
+        this(directory, Path.of(MAIN_CHART), threads, format);
+    }
+
+    /**
+     * Creates a job writing to the given directory and main chart file.
+     *
+     * @param directory The directory the views are written to
+     * @param mainChart The file the full history of the first series is written to, always as SVG
+     * @param threads The number of charts rendered at the same time
+     * @param format The file format of the views
+     */
+    public ChartJob(Path directory, Path mainChart, int threads, ChartFormat format) {
+        this.directory = directory;
+        this.mainChart = mainChart;
+        this.threads = threads;
+        this.format = format;
+    }
+
+    /**
+     * Renders every view whose data changed since it was last rendered.
+     *
+     * @param series The BMX series to chart
+     * @return The number of views rendered
+     * @throws RuntimeException if a view cannot be rendered
+     */
+    public int run(List<PrimitiveSeries> series) {
+        List<View> views = createViews(series);
+        Properties hashes = loadHashes();
+        Map<String, String> rendered = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e, () -> "Error creating charts directory");
+            throw new RuntimeException(e);
+        }
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for (View view : views) {
+                String hash = hash(view);
+                if (hash.equals(hashes.getProperty(view.key())) && Files.exists(view.path())) {
+                    LOGGER.log(Level.FINE, () -> "Chart unchanged, skipping " + view.path());
+                    continue;
+                }
+
+                futures.add(pool.submit(() -> {
+                    try (var timer = Metrics.time(Stage.RENDER, view.key())) {
+                        new TimeSeriesChart(view.series(), new LttbDownsampler(), view.label())
+                                .generateChart(view.path(), view.format());
+                        view.series().forEach(serie -> timer.addPoints(serie.size()));
+                    }
+                    rendered.put(view.key(), hash);
+                }));
+            }
+
+            for (Future<?> future : futures) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.SEVERE, e.getCause(), () -> "Error generating charts");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (!rendered.isEmpty()) {
+                hashes.putAll(rendered);
+                saveHashes(hashes);
+            }
+        }
+
+        LOGGER.log(Level.INFO, () -> "Charts rendered: " + rendered.size() + " of " + views.size());
+        return rendered.size();
+    }
+
+    /**
+     * Lists the views of the series: the main chart, every range of each series and,
+     * with more than one series, every range of the overlay.
+     */
+    private List<View> createViews(List<PrimitiveSeries> series) {
+        List<View> views = new ArrayList<>();
+        List<PrimitiveSeries> charted = series.stream().filter(s -> !s.isEmpty()).toList();
+        if (charted.isEmpty()) return views;
+
+        views.add(new View(MAIN_CHART, mainChart, ChartFormat.SVG, List.of(charted.get(0)), null));
+
+        int lastEpochDay = charted.stream().mapToInt(s -> s.epochDay(s.size() - 1)).max().getAsInt();
+        for (Range range : Range.values()) {
+            for (PrimitiveSeries serie : charted) {
+                String key = serie.getIdSerie() + "-" + range.label;
+                PrimitiveSeries window = range.window(serie, serie.epochDay(serie.size() - 1));
+                views.add(new View(key, directory.resolve(key + format.getExtension()), format, List.of(window), range.label));
+            }
+
+            if (charted.size() > 1) {
+                String key = OVERLAY + "-" + range.label;
+                List<PrimitiveSeries> windows = charted.stream().map(s -> range.window(s, lastEpochDay)).toList();
+                views.add(new View(key, directory.resolve(key + format.getExtension()), format, windows, range.label));
+            }
+        }
+
+        return views;
+    }
+
+    /**
+     * Hashes the data points shown by a view with SHA-256.
+     */
+    private static String hash(View view) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((view.key() + view.format()).getBytes(StandardCharsets.UTF_8));
+
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Long.BYTES);
+            for (PrimitiveSeries serie : view.series()) {
+                digest.update(serie.getIdSerie().getBytes(StandardCharsets.UTF_8));
+                for (int i = 0; i < serie.size(); i++) {
+                    buffer.clear();
+                    buffer.putInt(serie.epochDay(i)).putLong(serie.value(i)).flip();
+                    digest.update(buffer);
+                }
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Properties loadHashes() {
+        Properties hashes = new Properties();
+        Path file = directory.resolve(HASHES_FILE);
+        if (!Files.exists(file)) return hashes;
+
+        try (InputStream in = Files.newInputStream(file)) {
+            hashes.load(in);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read chart hashes, rendering every chart", e);
+        }
+
+        return hashes;
+    }
+
+    private void saveHashes(Properties hashes) {
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(directory.resolve(HASHES_FILE))) {
+                hashes.store(out, null);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to save chart hashes", e);
+        }
+    }
+
+}
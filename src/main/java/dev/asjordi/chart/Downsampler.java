@@ -0,0 +1,48 @@
+package dev.asjordi.chart;
+
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+
+/**
+ * Reduces a series to a number of points a chart can show, before it is turned into a dataset.
+ * Implementations keep the visual shape of the series, such as its peaks and troughs.
+ */
+public interface Downsampler {
+
+    /**
+     * Keeps every data point.
+     */
+    Downsampler NONE = (series, threshold) -> series;
+
+    /**
+     * Reduces a series to at most {@code threshold} data points.
+     * Series that already fit are returned as they are.
+     *
+     * @param series The series to reduce, sorted by date, without missing values
+     * @param threshold The maximum number of data points to keep
+     * @return The reduced series
+     */
+    PrimitiveSeries downsample(PrimitiveSeries series, int threshold);
+
+    /**
+     * Removes the missing values of a series, which cannot be plotted.
+     *
+     * @param series The series to filter
+     * @return The series with only present values, or the same series if none is missing
+     */
+    static PrimitiveSeries withoutMissing(PrimitiveSeries series) {
+        int[] days = new int[series.size()];
+        long[] values = new long[series.size()];
+        int size = 0;
+
+        for (int i = 0; i < series.size(); i++) {
+            if (series.value(i) == FixedPoint.MISSING) continue;
+            days[size] = series.epochDay(i);
+            values[size++] = series.value(i);
+        }
+
+        if (size == series.size()) return series;
+        return new PrimitiveSeries(series.getIdSerie(), series.getTitulo(), days, values, size);
+    }
+
+}
@@ -0,0 +1,70 @@
+package dev.asjordi.chart;
+
+import dev.asjordi.model.PrimitiveSeries;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling.
+ * Keeps the first and last data points and splits the rest into equal buckets. From each
+ * bucket it keeps the point forming the largest triangle with the point kept from the
+ * previous bucket and the average of the next bucket, which preserves peaks and troughs.
+ * Runs in O(n) over the series.
+ */
+public class LttbDownsampler implements Downsampler {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrimitiveSeries downsample(PrimitiveSeries series, int threshold) {
+        int size = series.size();
+        if (threshold >= size || threshold < 3) return series;
+
+        int[] days = new int[threshold];
+        long[] values = new long[threshold];
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+
+        int selected = 0;
+        days[0] = series.epochDay(0);
+        values[0] = series.value(0);
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0, avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += series.epochDay(i);
+                avgY += series.value(i);
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double ax = series.epochDay(selected);
+            double ay = series.value(selected);
+            double maxArea = -1;
+            int maxIndex = start;
+
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (series.value(i) - ay)
+                        - (ax - series.epochDay(i)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            days[bucket + 1] = series.epochDay(maxIndex);
+            values[bucket + 1] = series.value(maxIndex);
+            selected = maxIndex;
+        }
+
+        days[threshold - 1] = series.epochDay(size - 1);
+        values[threshold - 1] = series.value(size - 1);
+
+        return new PrimitiveSeries(series.getIdSerie(), series.getTitulo(), days, values, threshold);
+    }
+
+}
@@ -0,0 +1,49 @@
+package dev.asjordi.chart;
+
+import dev.asjordi.model.PrimitiveSeries;
+
+/**
+ * Min/max downsampling.
+ * Splits the series into {@code threshold / 2} equal buckets, roughly one per pixel
+ * column, and keeps the lowest and highest data points of each bucket in date order,
+ * so every spike stays visible. Runs in O(n) over the series.
+ */
+public class MinMaxDownsampler implements Downsampler {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrimitiveSeries downsample(PrimitiveSeries series, int threshold) {
+        int size = series.size();
+        int buckets = threshold / 2;
+        if (threshold >= size || buckets < 1) return series;
+
+        int[] days = new int[buckets * 2];
+        long[] values = new long[buckets * 2];
+        int kept = 0;
+
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int start = (int) ((long) bucket * size / buckets);
+            int end = (int) ((long) (bucket + 1) * size / buckets);
+            int min = start, max = start;
+
+            for (int i = start + 1; i < end; i++) {
+                if (series.value(i) < series.value(min)) min = i;
+                if (series.value(i) > series.value(max)) max = i;
+            }
+
+            int first = Math.min(min, max);
+            int second = Math.max(min, max);
+            days[kept] = series.epochDay(first);
+            values[kept++] = series.value(first);
+            if (second != first) {
+                days[kept] = series.epochDay(second);
+                values[kept++] = series.value(second);
+            }
+        }
+
+        return new PrimitiveSeries(series.getIdSerie(), series.getTitulo(), days, values, kept);
+    }
+
+}
@@ -1,13 +1,24 @@
 package dev.asjordi.chart;
 
 import dev.asjordi.logger.LoggerConfig;
-import dev.asjordi.model.Bmx;
-import dev.asjordi.model.Dato;
+import dev.asjordi.model.PrimitiveSeries;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+import javax.imageio.ImageIO;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.block.BlockBorder;
@@ -21,30 +32,67 @@ import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
 import org.jfree.data.xy.XYDataset;
 import org.jfree.svg.SVGGraphics2D;
-import org.jfree.svg.SVGUtils;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.logging.*;
 
 /**
  * Creates and generates time series charts for BMX exchange rate data.
  * This class uses the JFreeChart library to create visually appealing
  * charts of the MXN/USD exchange rate over time and saves them as SVG files.
+ * Series are downsampled to about one data point per pixel of the chart width
+ * before they are plotted, so the size of the chart does not grow with history.
+ * Several series are plotted together as an overlay.
+ * Charts are written as SVG, gzip-compressed SVG or PNG. Output is encoded straight
+ * into the file channel, without intermediate copies of the document.
  */
 public class TimeSeriesChart {
 
     private static final Logger LOGGER = LoggerConfig.getLogger();
-    private Bmx bmx;
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String DOCTYPE = "<!DOCTYPE svg PUBLIC \"-//W3C//DTD SVG 1.1//EN\" \"http://www.w3.org/Graphics/SVG/1.1/DTD/svg11.dtd\">\n";
+    private static final ThreadLocal<BufferedImage> CANVAS =
+            ThreadLocal.withInitial(() -> new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB));
+    private final List<PrimitiveSeries> series;
+    private final Downsampler downsampler;
+    private final String label;
 
     /**
-     * Constructor that initializes the chart with BMX data.
+     * Constructor that initializes the chart with BMX data, downsampled with LTTB.
      * 
-     * @param bmx The BMX data to be visualized in the chart
+     * @param series The BMX series to be visualized in the chart
      */
-    public TimeSeriesChart(Bmx bmx) {
-        this.bmx = bmx;
+    public TimeSeriesChart(List<PrimitiveSeries> series) {
+        this(series, new LttbDownsampler());
+    }
+
+    /**
+     * Constructor that initializes the chart with BMX data and a downsampling strategy.
+     * 
+     * @param series The BMX series to be visualized in the chart
+     * @param downsampler The strategy reducing each series before plotting, {@link Downsampler#NONE} for full resolution
+     */
+    public TimeSeriesChart(List<PrimitiveSeries> series, Downsampler downsampler) {
+        this(series, downsampler, null);
+    }
+
+    /**
+     * Constructor that initializes the chart with BMX data, a downsampling strategy and a view label.
+     * 
+     * @param series The BMX series to be visualized in the chart
+     * @param downsampler The strategy reducing each series before plotting
+     * @param label The label of the time range shown, added to the subtitle, may be null
+     */
+    public TimeSeriesChart(List<PrimitiveSeries> series, Downsampler downsampler, String label) {
+        this.series = series;
+        this.downsampler = downsampler;
+        this.label = label;
     }
 
     /**
@@ -54,45 +102,113 @@ public class TimeSeriesChart {
      * @throws RuntimeException if there is an error writing the SVG file
      */
     public void generateChart() {
+        generateChart(Paths.get("chart.svg"));
+    }
+
+    /**
+     * Generates a time series chart and saves it as an SVG file.
+     * 
+     * @param path The file to write the chart to
+     * @throws RuntimeException if there is an error writing the SVG file
+     */
+    public void generateChart(Path path) {
+        generateChart(path, ChartFormat.SVG);
+    }
+
+    /**
+     * Generates a time series chart and saves it in the given format.
+     * 
+     * @param path The file to write the chart to
+     * @param format The file format
+     * @throws RuntimeException if there is an error writing the file
+     */
+    public void generateChart(Path path, ChartFormat format) {
         LOGGER.log(Level.INFO, () -> "Starting chart generation");
         JFreeChart chart = createChart(createDataset());
 
-        SVGGraphics2D svgGraphics2D = new SVGGraphics2D(1920, 1080);
+        try {
+            switch (format) {
+                case SVG -> writeSvg(chart, path, false);
+                case SVGZ -> writeSvg(chart, path, true);
+                case PNG -> writePng(chart, path);
+            }
+            LOGGER.log(Level.INFO, () -> "Chart generated successfully: " + path);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e, () -> "Error writing chart file");
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Draws the chart as SVG and encodes it into the file channel through a small buffer,
+     * compressing it on the fly when requested.
+     * JFreeSVG keeps the document in memory while drawing, so the document is written as
+     * produced instead of being copied again to append a header or to encode it in full.
+     */
+    private static void writeSvg(JFreeChart chart, Path path, boolean gzip) throws IOException {
+        SVGGraphics2D svgGraphics2D = new SVGGraphics2D(WIDTH, HEIGHT);
         svgGraphics2D.setRenderingHint(JFreeChart.KEY_SUPPRESS_SHADOW_GENERATION, true);
+        chart.draw(svgGraphics2D, new Rectangle(0, 0, WIDTH, HEIGHT));
 
-        Rectangle rectangle = new Rectangle(0, 0, 1920, 1080);
-        chart.draw(svgGraphics2D, rectangle);
+        try (Writer writer = new OutputStreamWriter(openOutput(path, gzip), StandardCharsets.UTF_8)) {
+            writer.write(DOCTYPE);
+            writer.write(svgGraphics2D.getSVGElement());
+            writer.write('\n');
+        }
+    }
 
-        Path path = Paths.get("chart.svg");
+    /**
+     * Rasterizes the chart to PNG.
+     * Each rendering thread keeps one image of the chart size and draws over it on every call,
+     * so no image buffer is allocated per chart.
+     */
+    private static void writePng(JFreeChart chart, Path path) throws IOException {
+        BufferedImage image = CANVAS.get();
+        Graphics2D graphics = image.createGraphics();
 
         try {
-            SVGUtils.writeToSVG(path.toFile(), svgGraphics2D.getSVGElement());
-            LOGGER.log(Level.INFO, () -> "Chart generated successfully");
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, e, () -> "Error writing SVG file");
-            throw new RuntimeException(e);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, WIDTH, HEIGHT);
+            chart.draw(graphics, new Rectangle(0, 0, WIDTH, HEIGHT));
+        } finally {
+            graphics.dispose();
+        }
+
+        try (OutputStream out = openOutput(path, false)) {
+            ImageIO.write(image, "png", out);
         }
     }
 
+    private static OutputStream openOutput(Path path, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream out = Channels.newOutputStream(channel);
+        return gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
     /**
      * Creates a time series dataset from the BMX data.
-     * Extracts dates and exchange rate values from the BMX data and
-     * organizes them into a JFreeChart TimeSeriesCollection.
+     * Reads dates and scaled exchange rate values from each primitive series and
+     * organizes them into a JFreeChart TimeSeriesCollection. Missing values are skipped,
+     * and the remaining values are downsampled to the chart width.
      * 
      * @return XYDataset containing the time series data
      */
-    private XYDataset createDataset() {
-        TimeSeries timeSeries = new TimeSeries("Tasa de cambio (MXN/USD)");
-        List<Dato> datos = bmx.getSeries().get(0).getDatos();
+    XYDataset createDataset() {
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
 
-        datos.forEach(dato -> {
-            var day = new Day(dato.getFecha().getDayOfMonth(), dato.getFecha().getMonthValue(), dato.getFecha().getYear());
-            var value = Double.parseDouble(dato.getDato());
-            timeSeries.add(day, value);
-        });
+        for (PrimitiveSeries serie : series) {
+            TimeSeries timeSeries = new TimeSeries(serie.getIdSerie());
+            PrimitiveSeries datos = downsampler.downsample(Downsampler.withoutMissing(serie), WIDTH);
 
-        TimeSeriesCollection dataset = new TimeSeriesCollection();
-        dataset.addSeries(timeSeries);
+            for (int i = 0; i < datos.size(); i++) {
+                var fecha = LocalDate.ofEpochDay(datos.epochDay(i));
+                var day = new Day(fecha.getDayOfMonth(), fecha.getMonthValue(), fecha.getYear());
+                timeSeries.add(day, datos.doubleValue(i));
+            }
+
+            dataset.addSeries(timeSeries);
+        }
 
         return dataset;
     }
@@ -114,8 +230,9 @@ public class TimeSeriesChart {
         chart.addSubtitle(new TextTitle(
                 "Source: https://www.banxico.org.mx/SieAPIRest/service/v1",
                 new Font(fontName, Font.PLAIN, 24)));
+        String ids = series.stream().map(PrimitiveSeries::getIdSerie).collect(Collectors.joining(", "));
         chart.addSubtitle(new TextTitle(
-                "Serie: SF43718",
+                "Serie: " + ids + (label == null ? "" : " (" + label + ")"),
                 new Font(fontName, Font.PLAIN, 22)));
 
         XYPlot plot = (XYPlot) chart.getPlot();
@@ -0,0 +1,177 @@
+package dev.asjordi.codec;
+
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Streaming decoder of BMX series in the compact binary series format written by
+ * {@link SeriesEncoder}. Series are decoded one at a time straight into primitive
+ * columns, reading the stream through an internal buffer.
+ * Lengths read from the stream are checked before anything is allocated for them,
+ * so a truncated or corrupt stream fails with an {@link IOException}.
+ */
+public class SeriesDecoder implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+    private static final int MAX_SERIES_SIZE = 1 << 24;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    /**
+     * Creates a decoder and reads the stream header.
+     *
+     * @param in The stream holding the encoded series
+     * @throws IOException if the header cannot be read or the stream is not in the series format
+     */
+    public SeriesDecoder(InputStream in) throws IOException {
+        this.in = in;
+        int magic = readInt();
+        if (magic != SeriesEncoder.MAGIC) throw new IOException("Not a BMX series stream");
+
+        int version = readByte();
+        if (version != SeriesEncoder.VERSION) throw new IOException("Unsupported series format version: " + version);
+    }
+
+    /**
+     * Reads the next series of the stream.
+     *
+     * @return The series, or an empty Optional at the end of the stream
+     * @throws IOException if the series cannot be read or is truncated
+     */
+    public Optional<PrimitiveSeries> read() throws IOException {
+        if (!fill()) return Optional.empty();
+
+        String idSerie = readString();
+        String titulo = readString();
+        int size = readLength(MAX_SERIES_SIZE, "series size");
+        int[] epochDays = new int[Math.min(size, INITIAL_CAPACITY)];
+        long[] values = new long[epochDays.length];
+
+        int day = 0;
+        int gap = 0;
+        long lastValue = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (i == epochDays.length) {
+                int capacity = (int) Math.min(size, 2L * epochDays.length);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+
+            long dateToken = unzigzag(readVarint());
+            if (i == 0) {
+                day = (int) dateToken;
+            } else {
+                gap = i == 1 ? (int) dateToken : gap + (int) dateToken;
+                day += gap;
+            }
+            epochDays[i] = day;
+
+            long valueToken = readVarint();
+            if ((valueToken & 1) != 0) {
+                values[i] = FixedPoint.MISSING;
+            } else {
+                lastValue += unzigzag(valueToken >>> 1);
+                values[i] = lastValue;
+            }
+        }
+
+        return Optional.of(new PrimitiveSeries(idSerie, titulo.isEmpty() ? null : titulo, epochDays, values, size));
+    }
+
+    /**
+     * Closes the stream.
+     *
+     * @throws IOException if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readString() throws IOException {
+        int length = readLength(MAX_STRING_BYTES, "string length");
+        byte[] bytes = new byte[length];
+
+        for (int read = 0; read < length; ) {
+            if (!fill()) throw new EOFException("Truncated series stream");
+            int chunk = Math.min(length - read, limit - position);
+            System.arraycopy(buffer, position, bytes, read, chunk);
+            position += chunk;
+            read += chunk;
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a length, checking it is within the bounds of the format.
+     * The arrays of a series grow as its data points are read, so a corrupt
+     * series size fails at the end of the stream rather than allocating it at once.
+     *
+     * @param max The largest valid length
+     * @param name The name of the length, for the error message
+     * @return The length
+     * @throws IOException if the length is negative or larger than max
+     */
+    private int readLength(int max, String name) throws IOException {
+        long length = readVarint();
+        if (length < 0 || length > max) throw new IOException("Corrupt series stream, invalid " + name + ": " + length);
+        return (int) length;
+    }
+
+    private int readInt() throws IOException {
+        return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+    }
+
+    private int readByte() throws IOException {
+        if (!fill()) throw new EOFException("Truncated series stream");
+        return buffer[position++] & 0xFF;
+    }
+
+    private long readVarint() throws IOException {
+        boolean buffered = limit - position >= SeriesEncoder.MAX_VARINT_BYTES;
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = buffered ? buffer[position++] : readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Makes sure at least one byte is buffered, reading more from the stream when the buffer is empty.
+     *
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        if (position < limit) return true;
+
+        position = 0;
+        limit = 0;
+        int read = in.read(buffer, 0, BUFFER_SIZE);
+        if (read <= 0) return false;
+        limit = read;
+        return true;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
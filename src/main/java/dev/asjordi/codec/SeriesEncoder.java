@@ -0,0 +1,189 @@
+package dev.asjordi.codec;
+
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming encoder of BMX series in the compact binary series format.
+ * <p>
+ * The stream starts with the magic number "BMXD" and a version byte, followed by any
+ * number of series. Each series has its identifier and title as length-prefixed UTF-8,
+ * its number of data points, and the data points:
+ * <ul>
+ *   <li>Dates are delta-of-delta encoded: the first date is written in full, the second as
+ *       the gap to the first, and every later date as the change of the gap. Business days
+ *       have a gap of one day, so most dates encode to a single zero byte.</li>
+ *   <li>Values, scaled by {@link FixedPoint#FACTOR}, are delta encoded against the last
+ *       value present. Consecutive rates differ by a few hundred ten-thousandths, which
+ *       encodes to one or two bytes. The lowest bit marks a missing value.</li>
+ * </ul>
+ * Every number is a zigzag variable-length integer of 7 bits per byte. Data points are
+ * written as they are added through an internal buffer, so a series never has to be
+ * held in memory to be encoded.
+ */
+public class SeriesEncoder implements Closeable, Flushable {
+
+    static final int MAGIC = 0x424D5844; // "BMXD"
+    static final int VERSION = 1;
+    static final int MAX_VARINT_BYTES = 10;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private int remaining;
+    private int index;
+    private int lastDay;
+    private int lastGap;
+    private long lastValue;
+
+    /**
+     * Creates an encoder and writes the stream header.
+     *
+     * @param out The stream the encoded series are written to
+     * @throws IOException if the header cannot be written
+     */
+    public SeriesEncoder(OutputStream out) throws IOException {
+        this.out = out;
+        writeInt(MAGIC);
+        buffer[position++] = VERSION;
+    }
+
+    /**
+     * Starts a series. Exactly {@code size} data points must be added before the next
+     * series is started or the encoder is closed.
+     *
+     * @param idSerie The identifier of the series
+     * @param titulo The descriptive title of the series, may be null
+     * @param size The number of data points
+     * @throws IOException if the series header cannot be written
+     * @throws IllegalStateException if the previous series is not complete
+     */
+    public void begin(String idSerie, String titulo, int size) throws IOException {
+        checkComplete();
+        writeString(idSerie);
+        writeString(titulo == null ? "" : titulo);
+        writeVarint(size);
+        remaining = size;
+        index = 0;
+        lastValue = 0;
+    }
+
+    /**
+     * Adds the next data point of the current series.
+     *
+     * @param epochDay The date as days since 1970-01-01, after the previous date
+     * @param value The value scaled by {@link FixedPoint#FACTOR}, or {@link FixedPoint#MISSING}
+     * @throws IOException if the data point cannot be written
+     * @throws IllegalStateException if every data point of the series was already added
+     */
+    public void add(int epochDay, long value) throws IOException {
+        if (remaining == 0) throw new IllegalStateException("Series already complete");
+
+        if (index == 0) {
+            writeVarint(zigzag(epochDay));
+        } else {
+            int gap = epochDay - lastDay;
+            writeVarint(zigzag(index == 1 ? gap : gap - lastGap));
+            lastGap = gap;
+        }
+        lastDay = epochDay;
+
+        if (value == FixedPoint.MISSING) {
+            writeVarint(1);
+        } else {
+            writeVarint(zigzag(value - lastValue) << 1);
+            lastValue = value;
+        }
+
+        index++;
+        remaining--;
+    }
+
+    /**
+     * Writes a whole series.
+     *
+     * @param series The series to encode
+     * @throws IOException if the series cannot be written
+     */
+    public void write(PrimitiveSeries series) throws IOException {
+        begin(series.getIdSerie(), series.getTitulo(), series.size());
+        for (int i = 0; i < series.size(); i++) add(series.epochDay(i), series.value(i));
+    }
+
+    /**
+     * Writes the buffered bytes to the stream and flushes it.
+     *
+     * @throws IOException if the bytes cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Writes the buffered bytes and closes the stream.
+     *
+     * @throws IOException if the bytes cannot be written
+     * @throws IllegalStateException if the current series is not complete
+     */
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            checkComplete();
+            drain();
+        }
+    }
+
+    private void checkComplete() {
+        if (remaining != 0) throw new IllegalStateException(remaining + " data points missing in series");
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        if (BUFFER_SIZE - position < bytes.length) drain();
+
+        if (bytes.length > BUFFER_SIZE) {
+            out.write(bytes);
+        } else {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        if (BUFFER_SIZE - position < Integer.BYTES) drain();
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeVarint(long value) throws IOException {
+        if (BUFFER_SIZE - position < MAX_VARINT_BYTES) drain();
+
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
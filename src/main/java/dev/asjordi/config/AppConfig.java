@@ -0,0 +1,408 @@
+package dev.asjordi.config;
+
+import dev.asjordi.chart.ChartFormat;
+import dev.asjordi.logger.LogFormat;
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.logger.OverflowPolicy;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Configuration values of the application.
+ * Each value is read from a system property and, if it is not set, from the
+ * environment variable with the same name, falling back to a default.
+ * All methods are static and the class cannot be instantiated.
+ */
+public class AppConfig {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    private static final String SERIES_KEY = "BMX_SERIES";
+    private static final String API_URL_KEY = "BMX_API_URL";
+    private static final String RATE_LIMIT_REQUESTS_KEY = "BMX_RATE_LIMIT_REQUESTS";
+    private static final String RATE_LIMIT_PERIOD_KEY = "BMX_RATE_LIMIT_PERIOD_SECONDS";
+    private static final String SCHEDULE_TIME_KEY = "BMX_SCHEDULE_TIME";
+    private static final String SCHEDULE_ZONE_KEY = "BMX_SCHEDULE_ZONE";
+    private static final String BACKFILL_START_KEY = "BMX_BACKFILL_START";
+    private static final String BACKFILL_WINDOW_KEY = "BMX_BACKFILL_WINDOW_MONTHS";
+    private static final String BACKFILL_CONCURRENCY_KEY = "BMX_BACKFILL_CONCURRENCY";
+    private static final String REQUEST_TIMEOUT_KEY = "BMX_REQUEST_TIMEOUT_SECONDS";
+    private static final String RETRY_ATTEMPTS_KEY = "BMX_RETRY_ATTEMPTS";
+    private static final String RETRY_BASE_DELAY_KEY = "BMX_RETRY_BASE_MILLIS";
+    private static final String RETRY_MAX_DELAY_KEY = "BMX_RETRY_MAX_MILLIS";
+    private static final String HEDGE_PERCENTILE_KEY = "BMX_HEDGE_PERCENTILE";
+    private static final String BREAKER_FAILURES_KEY = "BMX_BREAKER_FAILURES";
+    private static final String BREAKER_OPEN_KEY = "BMX_BREAKER_OPEN_SECONDS";
+    private static final String API_PORT_KEY = "BMX_API_PORT";
+    private static final String API_HOST_KEY = "BMX_API_HOST";
+    private static final String CHART_THREADS_KEY = "BMX_CHART_THREADS";
+    private static final String CHART_FORMAT_KEY = "BMX_CHART_FORMAT";
+    private static final String LOG_FORMAT_KEY = "BMX_LOG_FORMAT";
+    private static final String PIPELINE_KEY = "BMX_PIPELINE";
+    private static final String EXPORT_JSON_KEY = "BMX_EXPORT_JSON";
+    private static final String EXPORT_SNAPSHOT_KEY = "BMX_EXPORT_SNAPSHOT";
+    private static final String LOG_BUFFER_KEY = "BMX_LOG_BUFFER";
+    private static final String LOG_OVERFLOW_KEY = "BMX_LOG_OVERFLOW";
+
+    private static final String DEFAULT_SERIES = "SF43718";
+    private static final String DEFAULT_API_URL = "https://www.banxico.org.mx/SieAPIRest/service/v1/series/";
+    private static final int DEFAULT_RATE_LIMIT_REQUESTS = 200;
+    private static final int DEFAULT_RATE_LIMIT_PERIOD_SECONDS = 300;
+    private static final String DEFAULT_SCHEDULE_TIME = "14:00";
+    private static final String DEFAULT_SCHEDULE_ZONE = "America/Mexico_City";
+    private static final LocalDate DEFAULT_BACKFILL_START = LocalDate.of(2023, 1, 1);
+    private static final int DEFAULT_BACKFILL_WINDOW_MONTHS = 12;
+    private static final int DEFAULT_BACKFILL_CONCURRENCY = 4;
+    private static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_RETRY_ATTEMPTS = 4;
+    private static final int DEFAULT_RETRY_BASE_DELAY_MILLIS = 500;
+    private static final int DEFAULT_RETRY_MAX_DELAY_MILLIS = 8000;
+    private static final int DEFAULT_HEDGE_PERCENTILE = 95;
+    private static final int DEFAULT_BREAKER_FAILURES = 4;
+    private static final int DEFAULT_BREAKER_OPEN_SECONDS = 60;
+    private static final int DEFAULT_API_PORT = 8080;
+    private static final String DEFAULT_API_HOST = "127.0.0.1";
+    private static final int DEFAULT_CHART_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final ChartFormat DEFAULT_CHART_FORMAT = ChartFormat.SVG;
+    private static final LogFormat DEFAULT_LOG_FORMAT = LogFormat.LINE;
+    private static final boolean DEFAULT_PIPELINE = Runtime.getRuntime().availableProcessors() > 1;
+    private static final int DEFAULT_LOG_BUFFER = 8192;
+    private static final OverflowPolicy DEFAULT_LOG_OVERFLOW = OverflowPolicy.BLOCK;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private AppConfig() { }
+
+    /**
+     * Gets the SIE series identifiers to fetch, as a comma-separated list.
+     * Defaults to the FIX exchange rate, SF43718.
+     *
+     * @return The series identifiers in configured order
+     */
+    public static List<String> getSeries() {
+        return Arrays.stream(get(SERIES_KEY, DEFAULT_SERIES).split(","))
+                .map(String::strip)
+                .filter(id -> !id.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Gets the base URL of the SIE series endpoint.
+     * Can point to a local stand-in of the API for testing.
+     *
+     * @return The base URL, ending with a slash
+     */
+    public static String getApiUrl() {
+        String url = get(API_URL_KEY, DEFAULT_API_URL);
+        return url.endsWith("/") ? url : url + "/";
+    }
+
+    /**
+     * Gets the number of requests the Banxico API allows per rate limit period.
+     *
+     * @return The maximum number of requests per period
+     */
+    public static int getRateLimitRequests() {
+        return getInt(RATE_LIMIT_REQUESTS_KEY, DEFAULT_RATE_LIMIT_REQUESTS);
+    }
+
+    /**
+     * Gets the length of the Banxico API rate limit period.
+     *
+     * @return The period in seconds
+     */
+    public static int getRateLimitPeriodSeconds() {
+        return getInt(RATE_LIMIT_PERIOD_KEY, DEFAULT_RATE_LIMIT_PERIOD_SECONDS);
+    }
+
+    /**
+     * Gets the time of day the daemon processes data.
+     * Banxico determines the FIX rate around noon Mexico City time, so the default
+     * runs at 14:00 to leave time for its publication.
+     *
+     * @return The time of day in the schedule zone
+     */
+    public static LocalTime getScheduleTime() {
+        try {
+            return LocalTime.parse(get(SCHEDULE_TIME_KEY, DEFAULT_SCHEDULE_TIME));
+        } catch (DateTimeParseException e) {
+            LOGGER.log(Level.WARNING, () -> SCHEDULE_TIME_KEY + " is not a valid time, using default value " + DEFAULT_SCHEDULE_TIME);
+            return LocalTime.parse(DEFAULT_SCHEDULE_TIME);
+        }
+    }
+
+    /**
+     * Gets the time zone of the daemon schedule.
+     *
+     * @return The zone, America/Mexico_City by default
+     */
+    public static ZoneId getScheduleZone() {
+        try {
+            return ZoneId.of(get(SCHEDULE_ZONE_KEY, DEFAULT_SCHEDULE_ZONE));
+        } catch (DateTimeException e) {
+            LOGGER.log(Level.WARNING, () -> SCHEDULE_ZONE_KEY + " is not a valid zone, using default value " + DEFAULT_SCHEDULE_ZONE);
+            return ZoneId.of(DEFAULT_SCHEDULE_ZONE);
+        }
+    }
+
+    /**
+     * Gets the first date of the history downloaded by a backfill, in yyyy-MM-dd format.
+     * Used for the initial data and for series added to an existing installation, so they
+     * are downloaded in full rather than from the last update of the other series.
+     *
+     * @return The configured start date, or 2023-01-01 by default
+     */
+    public static LocalDate getBackfillStart() {
+        String value = get(BACKFILL_START_KEY, null);
+        if (value == null) return DEFAULT_BACKFILL_START;
+
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            LOGGER.log(Level.WARNING, () -> BACKFILL_START_KEY + " is not a valid date, using default value " + DEFAULT_BACKFILL_START);
+            return DEFAULT_BACKFILL_START;
+        }
+    }
+
+    /**
+     * Gets the length of each window an initial backfill is split into.
+     *
+     * @return The window length in months
+     */
+    public static int getBackfillWindowMonths() {
+        return Math.max(1, getInt(BACKFILL_WINDOW_KEY, DEFAULT_BACKFILL_WINDOW_MONTHS));
+    }
+
+    /**
+     * Gets the maximum number of backfill windows fetched at the same time.
+     *
+     * @return The number of concurrent window requests
+     */
+    public static int getBackfillConcurrency() {
+        return Math.max(1, getInt(BACKFILL_CONCURRENCY_KEY, DEFAULT_BACKFILL_CONCURRENCY));
+    }
+
+    /**
+     * Gets how long each attempt of a request to the Banxico API may take.
+     *
+     * @return The timeout of an attempt in seconds
+     */
+    public static int getRequestTimeoutSeconds() {
+        return Math.max(1, getInt(REQUEST_TIMEOUT_KEY, DEFAULT_REQUEST_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Gets the number of times a request to the Banxico API is sent before giving up on it,
+     * including the first one.
+     *
+     * @return The maximum number of attempts per request
+     */
+    public static int getRetryAttempts() {
+        return Math.max(1, getInt(RETRY_ATTEMPTS_KEY, DEFAULT_RETRY_ATTEMPTS));
+    }
+
+    /**
+     * Gets the bound of the random wait after the first failed attempt of a request.
+     * The bound doubles after each further failure.
+     *
+     * @return The base delay in milliseconds
+     */
+    public static int getRetryBaseDelayMillis() {
+        return Math.max(0, getInt(RETRY_BASE_DELAY_KEY, DEFAULT_RETRY_BASE_DELAY_MILLIS));
+    }
+
+    /**
+     * Gets the largest wait between two attempts of a request.
+     *
+     * @return The maximum delay in milliseconds
+     */
+    public static int getRetryMaxDelayMillis() {
+        return Math.max(0, getInt(RETRY_MAX_DELAY_KEY, DEFAULT_RETRY_MAX_DELAY_MILLIS));
+    }
+
+    /**
+     * Gets the latency percentile of recent requests after which a second, hedged request is sent.
+     *
+     * @return The percentile, or 0 when requests are not hedged
+     */
+    public static int getHedgePercentile() {
+        return Math.clamp(getInt(HEDGE_PERCENTILE_KEY, DEFAULT_HEDGE_PERCENTILE), 0, 100);
+    }
+
+    /**
+     * Gets the number of failed attempts among the recent ones that opens the circuit breaker,
+     * provided they are at least three quarters of them.
+     *
+     * @return The failure threshold of the breaker
+     */
+    public static int getBreakerFailures() {
+        return Math.max(1, getInt(BREAKER_FAILURES_KEY, DEFAULT_BREAKER_FAILURES));
+    }
+
+    /**
+     * Gets how long the circuit breaker stays open before the API is probed again.
+     *
+     * @return The open period in seconds
+     */
+    public static int getBreakerOpenSeconds() {
+        return Math.max(0, getInt(BREAKER_OPEN_KEY, DEFAULT_BREAKER_OPEN_SECONDS));
+    }
+
+    /**
+     * Gets the port of the rate query API served in daemon mode.
+     *
+     * @return The port, or a negative number when the API is disabled
+     */
+    public static int getApiPort() {
+        return getInt(API_PORT_KEY, DEFAULT_API_PORT);
+    }
+
+    /**
+     * Gets the address the rate query API listens on.
+     * Defaults to the loopback interface, so only local clients can reach the API
+     * unless another address, such as 0.0.0.0 for every interface, is configured.
+     *
+     * @return The address to bind
+     */
+    public static String getApiHost() {
+        return get(API_HOST_KEY, DEFAULT_API_HOST);
+    }
+
+    /**
+     * Gets the number of charts rendered at the same time.
+     *
+     * @return The size of the chart rendering pool
+     */
+    public static int getChartThreads() {
+        return Math.max(1, getInt(CHART_THREADS_KEY, DEFAULT_CHART_THREADS));
+    }
+
+    /**
+     * Gets the file format of the chart views.
+     *
+     * @return The format, SVG by default
+     */
+    public static ChartFormat getChartFormat() {
+        return getEnum(CHART_FORMAT_KEY, ChartFormat.class, DEFAULT_CHART_FORMAT);
+    }
+
+    /**
+     * Gets the format of the log files.
+     *
+     * @return The format, one line of text per record by default
+     */
+    public static LogFormat getLogFormat() {
+        return getEnum(LOG_FORMAT_KEY, LogFormat.class, DEFAULT_LOG_FORMAT);
+    }
+
+    /**
+     * Gets the number of log records buffered before they are written.
+     *
+     * @return The capacity of the log buffer
+     */
+    public static int getLogBuffer() {
+        return Math.max(1, getInt(LOG_BUFFER_KEY, DEFAULT_LOG_BUFFER));
+    }
+
+    /**
+     * Gets what logging threads do when the log buffer is full.
+     *
+     * @return The policy, waiting for the writer by default
+     */
+    public static OverflowPolicy getLogOverflow() {
+        return getEnum(LOG_OVERFLOW_KEY, OverflowPolicy.class, DEFAULT_LOG_OVERFLOW);
+    }
+
+    /**
+     * Gets whether the stages that follow a merge run concurrently.
+     * Enabled by default when more than one processor is available, since on a single
+     * processor the stages only compete for it.
+     *
+     * @return true if BMX_PIPELINE is true, or it is not set and there are several processors
+     */
+    public static boolean isPipelineEnabled() {
+        return Boolean.parseBoolean(get(PIPELINE_KEY, String.valueOf(DEFAULT_PIPELINE)));
+    }
+
+    /**
+     * Gets whether data.json is exported after every run that changes the data.
+     * The store is the primary copy, and the export rewrites the whole history, but it stays
+     * enabled by default because data.json is the published file other consumers read.
+     *
+     * @return true unless BMX_EXPORT_JSON is false
+     */
+    public static boolean isJsonExportEnabled() {
+        return Boolean.parseBoolean(get(EXPORT_JSON_KEY, "true"));
+    }
+
+    /**
+     * Gets whether the binary snapshot data.bmxd is exported after every run that changes the data.
+     * Disabled by default, since the store already keeps the same data in binary form.
+     *
+     * @return true if BMX_EXPORT_SNAPSHOT is true
+     */
+    public static boolean isSnapshotExportEnabled() {
+        return Boolean.parseBoolean(get(EXPORT_SNAPSHOT_KEY, "false"));
+    }
+
+    /**
+     * Reads a value from the system properties or the environment.
+     *
+     * @param key The name of the property or environment variable
+     * @param defaultValue The value used when neither is set
+     * @return The configured value
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) value = System.getenv(key);
+        return value == null || value.isBlank() ? defaultValue : value.strip();
+    }
+
+    /**
+     * Reads an enum constant, by name and ignoring case, from the system properties or the environment.
+     *
+     * @param key The name of the property or environment variable
+     * @param type The enum class
+     * @param defaultValue The value used when neither is set or the value is not a constant of the enum
+     * @return The configured value
+     */
+    public static <E extends Enum<E>> E getEnum(String key, Class<E> type, E defaultValue) {
+        String value = get(key, defaultValue.name());
+
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, () -> key + " is not a valid value, using default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads an integer value from the system properties or the environment.
+     *
+     * @param key The name of the property or environment variable
+     * @param defaultValue The value used when neither is set or the value is not a number
+     * @return The configured value
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) return defaultValue;
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, () -> key + " is not a number, using default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+}
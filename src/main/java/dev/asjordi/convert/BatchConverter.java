@@ -0,0 +1,168 @@
+package dev.asjordi.convert;
+
+import dev.asjordi.index.AsOfSeries;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Converts batches of amounts at the rate in effect on each amount's own date.
+ * <p>
+ * Rates are resolved through the {@link AsOfSeries} view of the series, a dense table
+ * of the rate in effect on every calendar day, so resolving the rate of a date is a
+ * single array read instead of a binary search, and a conversion is a tight loop over
+ * primitive columns with no objects per line.
+ * <p>
+ * Amounts, rates and results are scaled by {@link FixedPoint#FACTOR} and rounded half
+ * to even, like the conversions of the API. Dates before the first rate have no rate,
+ * and dates after the last observation use the latest rate. Large batches are split
+ * across the common fork/join pool. Instances are immutable and thread-safe.
+ */
+public final class BatchConverter {
+
+    /**
+     * Number of lines below which a batch is converted on the calling thread.
+     */
+    static final int SPLIT_THRESHOLD = 1 << 16;
+
+    private final AsOfSeries rates;
+
+    private BatchConverter(AsOfSeries rates) {
+        this.rates = rates;
+    }
+
+    /**
+     * Creates the converter of a series, building its as-of view.
+     *
+     * @param series The series of rates, sorted by date
+     * @return The converter of the series
+     */
+    public static BatchConverter of(PrimitiveSeries series) {
+        return new BatchConverter(AsOfSeries.of(series));
+    }
+
+    /**
+     * Creates the converter of a series from its as-of view.
+     *
+     * @param rates The as-of view of the series of rates
+     * @return The converter of the series
+     */
+    public static BatchConverter of(AsOfSeries rates) {
+        return new BatchConverter(rates);
+    }
+
+    public String getIdSerie() {
+        return rates.getSeries().getIdSerie();
+    }
+
+    /**
+     * Gets the rate in effect on a date.
+     *
+     * @param epochDay The date as days since 1970-01-01
+     * @return The last rate published on or before the date, or {@link FixedPoint#MISSING} if there is none
+     */
+    public long rateAt(int epochDay) {
+        return rates.valueAt(epochDay);
+    }
+
+    /**
+     * Converts every amount at the rate of its date, splitting large batches across the
+     * common fork/join pool.
+     *
+     * @param amounts The amounts scaled by {@link FixedPoint#FACTOR}
+     * @param epochDays The date of each amount as days since 1970-01-01
+     * @param results Receives the converted amounts, or {@link FixedPoint#MISSING} when the
+     *                amount is missing or its date has no rate; may be the amounts array
+     * @param inverse true to divide by the rate, converting from pesos, instead of multiplying
+     * @return The number of amounts that could not be converted
+     * @throws IllegalArgumentException if the arrays have different lengths
+     * @throws ArithmeticException if a converted amount overflows
+     */
+    public int convert(long[] amounts, int[] epochDays, long[] results, boolean inverse) {
+        checkLengths(amounts, epochDays, results);
+        if (amounts.length < SPLIT_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return convert(amounts, epochDays, results, 0, amounts.length, inverse);
+        }
+        return ForkJoinPool.commonPool().invoke(new ConvertTask(amounts, epochDays, results, 0, amounts.length, inverse));
+    }
+
+    /**
+     * Converts a range of a batch on the calling thread.
+     *
+     * @param amounts The amounts scaled by {@link FixedPoint#FACTOR}
+     * @param epochDays The date of each amount as days since 1970-01-01
+     * @param results Receives the converted amounts, or {@link FixedPoint#MISSING} when the
+     *                amount is missing or its date has no rate; may be the amounts array
+     * @param from The first position to convert, inclusive
+     * @param to The last position to convert, exclusive
+     * @param inverse true to divide by the rate, converting from pesos, instead of multiplying
+     * @return The number of amounts in the range that could not be converted
+     * @throws ArithmeticException if a converted amount overflows
+     */
+    public int convert(long[] amounts, int[] epochDays, long[] results, int from, int to, boolean inverse) {
+        AsOfSeries table = rates;
+        int unresolved = 0;
+
+        for (int i = from; i < to; i++) {
+            long rate = table.valueAt(epochDays[i]);
+            long amount = amounts[i];
+
+            if (rate == FixedPoint.MISSING || amount == FixedPoint.MISSING) {
+                results[i] = FixedPoint.MISSING;
+                unresolved++;
+                continue;
+            }
+
+            results[i] = inverse ? FixedPoint.divide(amount, rate) : FixedPoint.multiply(amount, rate);
+        }
+
+        return unresolved;
+    }
+
+    private static void checkLengths(long[] amounts, int[] epochDays, long[] results) {
+        if (amounts.length != epochDays.length || amounts.length != results.length) {
+            throw new IllegalArgumentException("Amounts, dates and results must have the same length: "
+                    + amounts.length + ", " + epochDays.length + ", " + results.length);
+        }
+    }
+
+    /**
+     * Halves a range until it is below the split threshold and converts the halves in parallel.
+     */
+    private final class ConvertTask extends RecursiveTask<Integer> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long[] amounts;
+        private final int[] epochDays;
+        private final long[] results;
+        private final int from;
+        private final int to;
+        private final boolean inverse;
+
+        ConvertTask(long[] amounts, int[] epochDays, long[] results, int from, int to, boolean inverse) {
+            this.amounts = amounts;
+            this.epochDays = epochDays;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.inverse = inverse;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= SPLIT_THRESHOLD) return convert(amounts, epochDays, results, from, to, inverse);
+
+            int middle = (from + to) >>> 1;
+            ConvertTask left = new ConvertTask(amounts, epochDays, results, from, middle, inverse);
+            left.fork();
+            int right = new ConvertTask(amounts, epochDays, results, middle, to, inverse).compute();
+            return left.join() + right;
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+package dev.asjordi.daemon;
+
+import dev.asjordi.BmxDataProcessor;
+import dev.asjordi.api.RateApiServer;
+import dev.asjordi.config.AppConfig;
+import dev.asjordi.logger.LoggerConfig;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the BMX data processor as a long-running process.
+ * The processor, with its in-memory data, mapper and HTTP client, is created once and
+ * reused by every run, so each run only applies the new data points. Runs are scheduled
+ * once a day at the configured time through a {@link ScheduledExecutorService}.
+ * Between runs the data is served by the rate query API on the configured port.
+ * On shutdown the next scheduled run is dropped, and the daemon waits for a run in progress
+ * and flushes the store.
+ */
+public class DaemonRunner {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 120;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final BmxDataProcessor processor;
+    private final LocalTime runTime;
+    private final ZoneId zone;
+    private final ScheduledExecutorService scheduler;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private RateApiServer apiServer;
+
+    /**
+     * Creates a daemon for the given processor using the configured schedule.
+     * 
+     * @param processor The processor to run
+     */
+    public DaemonRunner(BmxDataProcessor processor) {
+        this(processor, AppConfig.getScheduleTime(), AppConfig.getScheduleZone());
+    }
+
+    /**
+     * Creates a daemon for the given processor and schedule.
+     * 
+     * @param processor The processor to run
+     * @param runTime The time of day to run at
+     * @param zone The time zone of the run time
+     */
+    public DaemonRunner(BmxDataProcessor processor, LocalTime runTime, ZoneId zone) {
+        this.processor = processor;
+        this.runTime = runTime;
+        this.zone = zone;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "bmx-daemon");
+            thread.setDaemon(false);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler = executor;
+    }
+
+    /**
+     * Starts the daemon and blocks until it is shut down.
+     * Processes data immediately to catch up, then at the configured time every day.
+     * The rate query API is started first, unless disabled with a negative port.
+     */
+    public void run() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "bmx-daemon-shutdown"));
+        LOGGER.log(Level.INFO, () -> "Starting daemon, processing data daily at " + runTime + " " + zone);
+
+        startApiServer(AppConfig.getApiHost(), AppConfig.getApiPort());
+
+        scheduler.execute(this::runAndReschedule);
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops scheduling new runs, drops the next scheduled one, waits for a run in progress
+     * and flushes pending writes.
+     */
+    public void shutdown() {
+        if (stopped.getCount() == 0) return;
+
+        LOGGER.log(Level.INFO, () -> "Shutting down daemon");
+        if (apiServer != null) apiServer.stop();
+        scheduler.shutdown();
+
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(Level.WARNING, () -> "Run in progress did not finish in time, stopping it");
+                scheduler.shutdownNow();
+            }
+            processor.flush();
+            LOGGER.log(Level.INFO, () -> "Daemon stopped");
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to flush store on shutdown", e);
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Starts the rate query API serving the latest processed data.
+     * An address that cannot be bound is logged and the daemon keeps running without the API.
+     * The JDK server writes the headers and the body of a response separately, so with Nagle's
+     * algorithm each body waits about 40 ms for the delayed ACK of its headers. The daemon
+     * enables TCP_NODELAY through {@value #NODELAY_PROPERTY}, which the JDK reads once for every
+     * server in the process, unless it was given at launch.
+     * 
+     * @param host The address to listen on
+     * @param port The port to listen on, negative to disable the API
+     */
+    private void startApiServer(String host, int port) {
+        if (port < 0) {
+            LOGGER.log(Level.INFO, () -> "Rate API disabled");
+            return;
+        }
+
+        if (System.getProperty(NODELAY_PROPERTY) == null) System.setProperty(NODELAY_PROPERTY, "true");
+
+        try {
+            apiServer = new RateApiServer(host, port, processor::getSnapshot, processor.enableCrossRates());
+            apiServer.start();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to start rate API on " + host + ":" + port, e);
+        }
+    }
+
+    /**
+     * Processes data and schedules the next run.
+     * The delay is computed on every run, so it stays aligned to the run time across clock changes.
+     * A failed run is logged and does not stop the daemon.
+     */
+    private void runAndReschedule() {
+        try {
+            processor.processData();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Scheduled data processing failed", e);
+        }
+
+        if (scheduler.isShutdown()) return;
+
+        Duration delay = delayUntilNextRun(ZonedDateTime.now(zone));
+        try {
+            scheduler.schedule(this::runAndReschedule, delay.toMillis(), TimeUnit.MILLISECONDS);
+            LOGGER.log(Level.INFO, () -> "Next data processing in " + delay);
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.INFO, () -> "Daemon shutting down, no further data processing scheduled");
+        }
+    }
+
+    /**
+     * Computes the time left until the next occurrence of the run time.
+     * 
+     * @param now The current time in the schedule zone
+     * @return The delay until the next run
+     */
+    Duration delayUntilNextRun(ZonedDateTime now) {
+        ZonedDateTime next = now.with(runTime);
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        return Duration.between(now, next);
+    }
+
+}
@@ -0,0 +1,121 @@
+package dev.asjordi.index;
+
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+
+/**
+ * As-of view of a series: the observation in effect on every calendar day.
+ * <p>
+ * Series only have observations on publication days, so weekends, holidays and
+ * missing values leave gaps. The view fills them once into dense arrays indexed by
+ * epoch day from the first present value to the last observation, carrying each
+ * observation forward, so any date resolves with one array read and no search.
+ * Dates after the last observation resolve to the latest value and dates before the
+ * first present value resolve to nothing. The view of the full USD series since
+ * 1991 is about 13,000 days. Instances are immutable.
+ */
+public final class AsOfSeries {
+
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final long[] NO_VALUES = new long[0];
+
+    private final PrimitiveSeries series;
+    private final int firstDay;
+    private final int lastDay;
+    private final int[] positions;
+    private final long[] values;
+
+    private AsOfSeries(PrimitiveSeries series, int firstDay, int[] positions, long[] values) {
+        this.series = series;
+        this.firstDay = firstDay;
+        this.lastDay = firstDay + values.length - 1;
+        this.positions = positions;
+        this.values = values;
+    }
+
+    /**
+     * Builds the as-of view of a series, skipping missing values.
+     *
+     * @param series The series, sorted by date
+     * @return The as-of view of the series
+     */
+    public static AsOfSeries of(PrimitiveSeries series) {
+        int first = 0;
+        while (first < series.size() && series.value(first) == FixedPoint.MISSING) first++;
+        if (first == series.size()) return new AsOfSeries(series, 0, NO_POSITIONS, NO_VALUES);
+
+        int firstDay = series.epochDay(first);
+        int length = series.epochDay(series.size() - 1) - firstDay + 1;
+        int[] positions = new int[length];
+        long[] values = new long[length];
+        int position = first;
+        int day = 0;
+
+        for (int i = first + 1; i < series.size(); i++) {
+            if (series.value(i) == FixedPoint.MISSING) continue;
+            int next = series.epochDay(i) - firstDay;
+            for (; day < next; day++) {
+                positions[day] = position;
+                values[day] = series.value(position);
+            }
+            position = i;
+        }
+        for (; day < length; day++) {
+            positions[day] = position;
+            values[day] = series.value(position);
+        }
+
+        return new AsOfSeries(series, firstDay, positions, values);
+    }
+
+    /**
+     * @return The series the view was built from
+     */
+    public PrimitiveSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * @return The date of the first present value as days since 1970-01-01, or 0 if there is none
+     */
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * @return The date of the last observation as days since 1970-01-01, or -1 if there is no present value
+     */
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    /**
+     * @return true if the series has no present value
+     */
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    /**
+     * Finds the last observation with a value on or before a date.
+     *
+     * @param epochDay The date as days since 1970-01-01
+     * @return The position of the observation in the series, or -1 if there is none
+     */
+    public int positionAt(int epochDay) {
+        if (epochDay < firstDay || positions.length == 0) return -1;
+        return epochDay >= lastDay ? positions[positions.length - 1] : positions[epochDay - firstDay];
+    }
+
+    /**
+     * Gets the value in effect on a date.
+     *
+     * @param epochDay The date as days since 1970-01-01
+     * @return The last value on or before the date, or {@link FixedPoint#MISSING} if there is none
+     */
+    public long valueAt(int epochDay) {
+        if (epochDay < firstDay || values.length == 0) return FixedPoint.MISSING;
+        return epochDay >= lastDay ? values[values.length - 1] : values[epochDay - firstDay];
+    }
+
+}
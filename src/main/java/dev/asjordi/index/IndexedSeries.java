@@ -0,0 +1,261 @@
+package dev.asjordi.index;
+
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.model.Series;
+import dev.asjordi.util.FixedPoint;
+import java.util.Arrays;
+
+/**
+ * A single series kept sorted by date in primitive columns.
+ * Dates are stored as epoch days and values as longs scaled by {@link FixedPoint#FACTOR}.
+ * Observations past the last date are appended in O(1), existing dates are found by
+ * binary search, and dates that fall inside the history are merged in one pass.
+ */
+public class IndexedSeries {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String idSerie;
+    private String titulo;
+    private int[] epochDays;
+    private long[] values;
+    private int size;
+
+    /**
+     * Creates an empty series.
+     *
+     * @param idSerie The identifier of the series
+     * @param titulo The descriptive title of the series
+     */
+    public IndexedSeries(String idSerie, String titulo) {
+        this.idSerie = idSerie;
+        this.titulo = titulo;
+        this.epochDays = new int[INITIAL_CAPACITY];
+        this.values = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Builds an indexed series from the Jackson model.
+     *
+     * @param series The series to index
+     * @return The indexed series
+     */
+    public static IndexedSeries fromSeries(Series series) {
+        return fromPrimitive(PrimitiveSeries.fromSeries(series));
+    }
+
+    /**
+     * Builds an indexed series from the primitive model.
+     *
+     * @param series The series to index, in date order
+     * @return The indexed series
+     */
+    public static IndexedSeries fromPrimitive(PrimitiveSeries series) {
+        IndexedSeries indexed = new IndexedSeries(series.getIdSerie(), series.getTitulo());
+        indexed.epochDays = series.epochDays();
+        indexed.values = series.values();
+        indexed.size = series.size();
+        return indexed;
+    }
+
+    public String getIdSerie() {
+        return idSerie;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    /**
+     * @return The number of observations in the series
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The position of the observation
+     * @return The date of the observation as days since 1970-01-01
+     */
+    public int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * @param index The position of the observation
+     * @return The value of the observation scaled by {@link FixedPoint#FACTOR}
+     */
+    public long value(int index) {
+        return values[index];
+    }
+
+    /**
+     * Finds the position of a date.
+     *
+     * @param epochDay The date as days since 1970-01-01
+     * @return The position of the date, or {@code -(insertion point) - 1} if it is not present
+     */
+    public int indexOf(int epochDay) {
+        return Arrays.binarySearch(epochDays, 0, size, epochDay);
+    }
+
+    /**
+     * Inserts or replaces a batch of data points.
+     * Runs in O(k log n) for k points, or O(k) when they all fall past the last date.
+     * Points that fall between existing dates are merged in a single O(n + k) pass.
+     * Later points win when the batch holds the same date more than once.
+     *
+     * @param batch The data points to merge, in any order
+     * @return The data points that were added or changed an existing value, in date order
+     */
+    public PrimitiveSeries upsertAll(PrimitiveSeries batch) {
+        int k = batch.size();
+        int[] changedDays = new int[k];
+        int changed = 0;
+        int[] pendingDays = null;
+        long[] pendingValues = null;
+        int pending = 0;
+
+        for (int b = 0; b < k; b++) {
+            int day = batch.epochDay(b);
+            long value = batch.value(b);
+
+            if (size == 0 || day > epochDays[size - 1]) {
+                ensureCapacity(size + 1);
+                epochDays[size] = day;
+                values[size] = value;
+                size++;
+                changedDays[changed++] = day;
+                continue;
+            }
+
+            int index = indexOf(day);
+            if (index >= 0) {
+                if (values[index] != value) {
+                    values[index] = value;
+                    changedDays[changed++] = day;
+                }
+                continue;
+            }
+
+            if (pendingDays == null) {
+                pendingDays = new int[k];
+                pendingValues = new long[k];
+            }
+            pendingDays[pending] = day;
+            pendingValues[pending] = value;
+            pending++;
+            changedDays[changed++] = day;
+        }
+
+        if (pending > 0) mergePending(pendingDays, pendingValues, pending);
+
+        return changes(changedDays, changed);
+    }
+
+    /**
+     * Copies the series into the compact, immutable model.
+     *
+     * @return The primitive series
+     */
+    public PrimitiveSeries toPrimitive() {
+        return new PrimitiveSeries(idSerie, titulo, epochDays, values, size);
+    }
+
+    /**
+     * Copies the observations of a range of dates into the compact, immutable model.
+     *
+     * @param fromEpochDay The first date of the range as days since 1970-01-01
+     * @param toEpochDay The last date of the range as days since 1970-01-01
+     * @return The primitive series with the observations in the range, empty if there are none
+     */
+    public PrimitiveSeries range(int fromEpochDay, int toEpochDay) {
+        int start = indexOf(fromEpochDay);
+        if (start < 0) start = -start - 1;
+        int end = indexOf(toEpochDay);
+        end = end < 0 ? -end - 1 : end + 1;
+        if (end <= start) return new PrimitiveSeries(idSerie, titulo, epochDays, values, 0);
+
+        return new PrimitiveSeries(idSerie, titulo, Arrays.copyOfRange(epochDays, start, end),
+                Arrays.copyOfRange(values, start, end), end - start);
+    }
+
+    /**
+     * Converts the series back to the Jackson model.
+     *
+     * @return A Series with one Dato per observation, in date order
+     */
+    public Series toSeries() {
+        return toPrimitive().toSeries();
+    }
+
+    /**
+     * Builds the sorted, distinct set of changed dates with their final values.
+     */
+    private PrimitiveSeries changes(int[] changedDays, int changed) {
+        Arrays.sort(changedDays, 0, changed);
+
+        int[] days = new int[changed];
+        long[] changedValues = new long[changed];
+        int unique = 0;
+
+        for (int i = 0; i < changed; i++) {
+            if (unique > 0 && days[unique - 1] == changedDays[i]) continue;
+            days[unique] = changedDays[i];
+            changedValues[unique] = values[indexOf(changedDays[i])];
+            unique++;
+        }
+
+        return new PrimitiveSeries(idSerie, titulo, days, changedValues, unique);
+    }
+
+    /**
+     * Merges points whose dates fall inside the history in one backwards pass.
+     * Later points win when the batch holds the same date more than once.
+     */
+    private void mergePending(int[] pendingDays, long[] pendingValues, int pending) {
+        Integer[] order = new Integer[pending];
+        for (int i = 0; i < pending; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(pendingDays[a], pendingDays[b]));
+
+        int unique = 0;
+        for (int j = 0; j < pending; j++) {
+            if (j + 1 < pending && pendingDays[order[j + 1]] == pendingDays[order[j]]) continue;
+            order[unique++] = order[j];
+        }
+
+        ensureCapacity(size + unique);
+
+        int i = size - 1;
+        int j = unique - 1;
+        int target = size + unique - 1;
+
+        while (j >= 0) {
+            int k = order[j];
+            if (i >= 0 && epochDays[i] > pendingDays[k]) {
+                epochDays[target] = epochDays[i];
+                values[target] = values[i--];
+            } else {
+                epochDays[target] = pendingDays[k];
+                values[target] = pendingValues[k];
+                j--;
+            }
+            target--;
+        }
+
+        size += unique;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= epochDays.length) return;
+
+        int newCapacity = Math.max(capacity, epochDays.length + (epochDays.length >> 1));
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+}
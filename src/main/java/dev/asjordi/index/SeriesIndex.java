@@ -0,0 +1,140 @@
+package dev.asjordi.index;
+
+import dev.asjordi.model.Bmx;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.model.Series;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Index of BMX series by their identifier.
+ * Each entry is an {@link IndexedSeries} sorted by date, so merging new data points
+ * does not require scanning every series and every existing date.
+ * Series keep the order in which they were added. Adding and looking up series is
+ * thread-safe, so series can be filled concurrently as long as each
+ * {@link IndexedSeries} is written by one thread at a time.
+ */
+public class SeriesIndex {
+
+    private final Map<String, IndexedSeries> series = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Builds an index from the Jackson model.
+     *
+     * @param bmx The BMX data to index
+     * @return The index holding every series of the BMX data
+     */
+    public static SeriesIndex of(Bmx bmx) {
+        SeriesIndex index = new SeriesIndex();
+        if (bmx.getSeries() != null) bmx.getSeries().forEach(index::add);
+        return index;
+    }
+
+    /**
+     * Adds a series to the index, replacing any series with the same identifier.
+     *
+     * @param serie The series to index
+     * @return The indexed series
+     */
+    public IndexedSeries add(Series serie) {
+        IndexedSeries indexed = IndexedSeries.fromSeries(serie);
+        series.put(indexed.getIdSerie(), indexed);
+        return indexed;
+    }
+
+    /**
+     * Returns the series with the given identifier, adding an empty one if it is not in the index.
+     *
+     * @param idSerie The identifier of the series
+     * @param titulo The descriptive title used when the series is added
+     * @return The indexed series
+     */
+    public IndexedSeries getOrCreate(String idSerie, String titulo) {
+        return series.computeIfAbsent(idSerie, id -> new IndexedSeries(id, titulo));
+    }
+
+    /**
+     * Removes every series that holds no observations.
+     */
+    public void removeEmpty() {
+        series.values().removeIf(s -> s.size() == 0);
+    }
+
+    /**
+     * Adds a primitive series to the index, replacing any series with the same identifier.
+     *
+     * @param serie The series to index
+     * @return The indexed series
+     */
+    public IndexedSeries add(PrimitiveSeries serie) {
+        IndexedSeries indexed = IndexedSeries.fromPrimitive(serie);
+        series.put(indexed.getIdSerie(), indexed);
+        return indexed;
+    }
+
+    /**
+     * @return Compact copies of every indexed series, in insertion order
+     */
+    public List<PrimitiveSeries> snapshot() {
+        return series.values().stream().map(IndexedSeries::toPrimitive).toList();
+    }
+
+    /**
+     * Finds the most recent date across every series.
+     *
+     * @return Optional containing the latest epoch day, or empty if every series is empty
+     */
+    public OptionalInt lastEpochDay() {
+        return series.values().stream()
+                .filter(s -> s.size() > 0)
+                .mapToInt(s -> s.epochDay(s.size() - 1))
+                .max();
+    }
+
+    /**
+     * Finds the most recent date of a series.
+     *
+     * @param idSerie The identifier of the series
+     * @return Optional containing the latest epoch day, or empty if the series is missing or empty
+     */
+    public OptionalInt lastEpochDay(String idSerie) {
+        IndexedSeries serie = series.get(idSerie);
+        return serie == null || serie.size() == 0 ? OptionalInt.empty() : OptionalInt.of(serie.epochDay(serie.size() - 1));
+    }
+
+    /**
+     * @param idSerie The identifier of the series
+     * @return Optional containing the indexed series, or empty if it is not in the index
+     */
+    public Optional<IndexedSeries> get(String idSerie) {
+        return Optional.ofNullable(series.get(idSerie));
+    }
+
+    /**
+     * @return Every indexed series, in insertion order
+     */
+    public Collection<IndexedSeries> all() {
+        return series.values();
+    }
+
+    /**
+     * Converts the index back to the Jackson model.
+     *
+     * @return A Bmx object with every series in insertion order
+     */
+    public Bmx toBmx() {
+        List<Series> list = new ArrayList<>(series.size());
+        series.values().forEach(indexed -> list.add(indexed.toSeries()));
+
+        Bmx bmx = new Bmx();
+        bmx.setSeries(list);
+        return bmx;
+    }
+
+}
@@ -0,0 +1,232 @@
+package dev.asjordi.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Log handler that writes records to rotating files from a background thread.
+ * Logging threads only place the record in a bounded ring buffer; the writer thread
+ * takes every record waiting in the buffer at once, formats them and writes them
+ * to the file in a single write, so formatting and file I/O never run on the caller.
+ * <p>
+ * When the buffer is full the {@link OverflowPolicy} decides whether the caller waits
+ * or the record is dropped. Dropped records are counted and reported in the log.
+ * Files are named "app.0.log" to "app.{count - 1}.log", where "app.0.log" is the newest,
+ * and are rotated when they reach the size limit, like {@link java.util.logging.FileHandler}.
+ * <p>
+ * The caller of a record is not inferred, since the stack of the logging thread is no
+ * longer available when the record is formatted.
+ * <p>
+ * Logging threads hold the read side of a {@link ReadWriteLock} while they place a record,
+ * and closing takes the write side, so no record enters the buffer once the writer thread
+ * has been told to stop and a blocked caller is never left waiting for a writer that is gone.
+ */
+public final class AsyncFileHandler extends Handler {
+
+    private static final int MAX_BATCH = 1024;
+    private static final LogRecord CLOSE = new LogRecord(Level.OFF, null);
+
+    private final Path directory;
+    private final long limit;
+    private final int count;
+    private final OverflowPolicy policy;
+    private final BlockingQueue<LogRecord> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private OutputStream out;
+    private long written;
+
+    /**
+     * Creates the handler and starts its writer thread, appending to the newest log file.
+     * Records are formatted with a {@link LineFormatter} unless another formatter is set.
+     *
+     * @param directory The directory of the log files
+     * @param limit The size in bytes at which a file is rotated
+     * @param count The number of files kept
+     * @param capacity The number of records the buffer holds
+     * @param policy What logging threads do when the buffer is full
+     * @throws IOException if the log file cannot be opened
+     */
+    public AsyncFileHandler(Path directory, long limit, int count, int capacity, OverflowPolicy policy) throws IOException {
+        this.directory = directory;
+        this.limit = limit;
+        this.count = Math.max(1, count);
+        this.policy = policy;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        setFormatter(new LineFormatter());
+
+        Files.createDirectories(directory);
+        open();
+
+        this.writer = Thread.ofPlatform().name("log-writer").daemon().start(this::drain);
+    }
+
+    /**
+     * Places a record in the buffer to be written by the writer thread.
+     *
+     * @param record The log record
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) return;
+
+        closing.readLock().lock();
+        try {
+            if (closed) return;
+
+            if (policy == OverflowPolicy.DROP) {
+                if (!buffer.offer(record)) dropped.increment();
+                return;
+            }
+
+            buffer.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Does nothing, every batch is flushed to the file as soon as it is written.
+     */
+    @Override
+    public void flush() { }
+
+    /**
+     * Writes every record still in the buffer, stops the writer thread and closes the file.
+     */
+    @Override
+    public void close() {
+        closing.writeLock().lock();
+        try {
+            if (closed) return;
+            buffer.put(CLOSE);
+            closed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            closing.writeLock().unlock();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of records dropped because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writer thread loop: waits for a record, takes everything else waiting
+     * in the buffer and writes the batch, until the handler is closed.
+     */
+    private void drain() {
+        List<LogRecord> batch = new ArrayList<>(MAX_BATCH);
+        long reported = 0;
+        boolean running = true;
+
+        while (running) {
+            try {
+                batch.add(buffer.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            buffer.drainTo(batch, MAX_BATCH - 1);
+
+            long lost = dropped.sum();
+            if (lost > reported) {
+                LogRecord record = new LogRecord(Level.WARNING, (lost - reported) + " log records dropped, buffer full");
+                batch.add(record);
+                reported = lost;
+            }
+
+            running = !batch.remove(CLOSE);
+            write(batch);
+            batch.clear();
+        }
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError("Failed to close log file", e, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+
+    private void write(List<LogRecord> batch) {
+        StringBuilder text = new StringBuilder(batch.size() * 128);
+
+        for (LogRecord record : batch) {
+            try {
+                text.append(getFormatter().format(record));
+            } catch (RuntimeException e) {
+                reportError("Failed to format log record", e, ErrorManager.FORMAT_FAILURE);
+            }
+        }
+
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        try {
+            if (written > 0 && written + bytes.length > limit) rotate();
+            out.write(bytes);
+            out.flush();
+            written += bytes.length;
+        } catch (IOException e) {
+            reportError("Failed to write log records", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * Shifts every log file one generation back, dropping the oldest, and starts a new file.
+     */
+    private void rotate() throws IOException {
+        out.close();
+
+        Files.deleteIfExists(file(count - 1));
+        for (int generation = count - 2; generation >= 0; generation--) {
+            if (Files.exists(file(generation))) {
+                Files.move(file(generation), file(generation + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        open();
+    }
+
+    private void open() throws IOException {
+        Path file = file(0);
+        out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        written = Files.size(file);
+    }
+
+    private Path file(int generation) {
+        return directory.resolve("app." + generation + ".log");
+    }
+
+}
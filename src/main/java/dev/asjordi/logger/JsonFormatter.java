@@ -0,0 +1,40 @@
+package dev.asjordi.logger;
+
+import dev.asjordi.util.JsonText;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+
+/**
+ * Formats each log record as a JSON object on a single line, with the time, level,
+ * thread, message and the stack trace of the exception, if any.
+ */
+public class JsonFormatter extends Formatter {
+
+    /**
+     * Formats a record as a JSON line.
+     *
+     * @param record The log record
+     * @return The JSON object, ending with a line separator
+     */
+    @Override
+    public String format(LogRecord record) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"time\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(record.getInstant(), json);
+        json.append("\",\"level\":\"").append(record.getLevel().getName())
+                .append("\",\"thread\":").append(record.getLongThreadID())
+                .append(",\"message\":\"");
+        JsonText.escape(formatMessage(record), json);
+        json.append('"');
+
+        if (record.getThrown() != null) {
+            json.append(",\"thrown\":\"");
+            JsonText.escape(LineFormatter.stackTrace(record.getThrown()), json);
+            json.append('"');
+        }
+
+        return json.append('}').append(System.lineSeparator()).toString();
+    }
+
+}
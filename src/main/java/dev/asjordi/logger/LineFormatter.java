@@ -0,0 +1,48 @@
+package dev.asjordi.logger;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+
+/**
+ * Formats each log record as a single line with its time, level, thread and message,
+ * followed by the stack trace of the exception, if any.
+ */
+public class LineFormatter extends Formatter {
+
+    /**
+     * Formats a record as a line.
+     *
+     * @param record The log record
+     * @return The formatted line, ending with a line separator
+     */
+    @Override
+    public String format(LogRecord record) {
+        StringBuilder line = new StringBuilder(128);
+        DateTimeFormatter.ISO_INSTANT.formatTo(record.getInstant(), line);
+        line.append(' ').append(record.getLevel().getName())
+                .append(" [").append(record.getLongThreadID()).append("] ")
+                .append(formatMessage(record))
+                .append(System.lineSeparator());
+
+        if (record.getThrown() != null) line.append(stackTrace(record.getThrown()));
+        return line.toString();
+    }
+
+    /**
+     * Prints the stack trace of an exception.
+     *
+     * @param thrown The exception
+     * @return The stack trace
+     */
+    static String stackTrace(Throwable thrown) {
+        StringWriter trace = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(trace)) {
+            thrown.printStackTrace(writer);
+        }
+        return trace.toString();
+    }
+
+}
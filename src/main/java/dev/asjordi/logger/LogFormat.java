@@ -0,0 +1,20 @@
+package dev.asjordi.logger;
+
+import java.util.logging.Formatter;
+
+/**
+ * Format of the lines written to the log files.
+ */
+public enum LogFormat {
+    /** One plain text line per record. */
+    LINE,
+    /** One JSON object per line. */
+    JSON;
+
+    /**
+     * @return A new formatter for this format
+     */
+    public Formatter newFormatter() {
+        return this == JSON ? new JsonFormatter() : new LineFormatter();
+    }
+}
@@ -1,17 +1,16 @@
 package dev.asjordi.logger;
 
+import dev.asjordi.config.AppConfig;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.logging.FileHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.logging.XMLFormatter;
 
 /**
  * Configuration class for the application's logging system.
  * Provides methods to set up and access a global logger instance.
- * The logger is configured to write to rotating log files in XML format.
+ * The logger is configured to write to rotating log files from a background thread,
+ * as plain text lines or JSON.
  */
 public class LoggerConfig {
 
@@ -23,19 +22,22 @@ public class LoggerConfig {
     private LoggerConfig() { }
 
     /**
-     * Sets up the global logger with file handlers.
+     * Sets up the global logger with an asynchronous file handler.
      * Creates a logs directory if it doesn't exist and configures the logger
-     * to write to rotating log files with XML formatting.
+     * to write to rotating log files in the format set in BMX_LOG_FORMAT.
+     * Records are buffered and written in batches by a background thread; the buffer
+     * size and what happens when it is full are set in BMX_LOG_BUFFER and BMX_LOG_OVERFLOW.
      * Each log file is limited to 1MB, with a maximum of 10 files.
+     * The handler is closed, writing every buffered record, when the JVM shuts down.
      */
     public static void setupLogger() {
         try {
-            Files.createDirectories(Paths.get("logs"));
             int limit = 1024 * 1024;
             int fileCount = 10;
-            FileHandler fn = new FileHandler("logs/app.%g.log", limit, fileCount, true);
-            fn.setFormatter(new XMLFormatter());
-            LOGGER.addHandler(fn);
+            AsyncFileHandler handler = new AsyncFileHandler(Paths.get("logs"), limit, fileCount,
+                    AppConfig.getLogBuffer(), AppConfig.getLogOverflow());
+            handler.setFormatter(AppConfig.getLogFormat().newFormatter());
+            LOGGER.addHandler(handler);
             LOGGER.setLevel(Level.ALL);
             LOGGER.setUseParentHandlers(true);
         } catch (IOException e) {
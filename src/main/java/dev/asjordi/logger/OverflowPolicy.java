@@ -0,0 +1,11 @@
+package dev.asjordi.logger;
+
+/**
+ * What a logging thread does when the buffer of the asynchronous handler is full.
+ */
+public enum OverflowPolicy {
+    /** Waits until the writer frees space, so no record is lost. */
+    BLOCK,
+    /** Discards the record and counts it, so logging never waits for the disk. */
+    DROP
+}
@@ -0,0 +1,48 @@
+package dev.asjordi.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with fixed buckets, in seconds.
+ */
+class Histogram {
+
+    static final double[] BUCKETS = {0.001, 0.005, 0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram() {
+        for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+    }
+
+    /**
+     * Adds an observation.
+     *
+     * @param seconds The observed duration in seconds
+     */
+    void observe(double seconds) {
+        int bucket = 0;
+        while (bucket < BUCKETS.length && seconds > BUCKETS[bucket]) bucket++;
+        counts[bucket].increment();
+        sum.add(seconds);
+    }
+
+    /**
+     * @return The number of observations in each bucket, the last one being above every bound
+     */
+    long[] counts() {
+        long[] result = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) result[i] = counts[i].sum();
+        return result;
+    }
+
+    /**
+     * @return The sum of every observation
+     */
+    double sum() {
+        return sum.sum();
+    }
+
+}
@@ -0,0 +1,128 @@
+package dev.asjordi.metrics;
+
+import dev.asjordi.logger.LoggerConfig;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide registry of processing stage metrics.
+ * Keeps a duration histogram and byte and point counters per {@link Stage}, updated without
+ * locks from any thread, and renders them in the Prometheus text exposition format.
+ */
+public final class Metrics {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private static final Map<Stage, Histogram> DURATIONS = new EnumMap<>(Stage.class);
+    private static final Map<Stage, LongAdder> BYTES = new EnumMap<>(Stage.class);
+    private static final Map<Stage, LongAdder> POINTS = new EnumMap<>(Stage.class);
+
+    static {
+        for (Stage stage : Stage.values()) {
+            DURATIONS.put(stage, new Histogram());
+            BYTES.put(stage, new LongAdder());
+            POINTS.put(stage, new LongAdder());
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Metrics() { }
+
+    /**
+     * Starts timing a stage.
+     *
+     * @param stage The stage to time
+     * @return The timer, to be closed when the stage ends
+     */
+    public static StageTimer time(Stage stage) {
+        return new StageTimer(stage, null);
+    }
+
+    /**
+     * Starts timing a stage of a series.
+     *
+     * @param stage The stage to time
+     * @param series The series identifier, recorded in the Flight Recorder event
+     * @return The timer, to be closed when the stage ends
+     */
+    public static StageTimer time(Stage stage, String series) {
+        return new StageTimer(stage, series);
+    }
+
+    /**
+     * Adds a finished stage to the registry.
+     */
+    static void record(Stage stage, long nanos, long bytes, long points) {
+        DURATIONS.get(stage).observe(nanos / NANOS_PER_SECOND);
+        if (bytes > 0) BYTES.get(stage).add(bytes);
+        if (points > 0) POINTS.get(stage).add(points);
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     *
+     * @return The metrics text
+     */
+    public static String scrape() {
+        StringBuilder text = new StringBuilder(4096);
+
+        text.append("# HELP bmx_stage_duration_seconds Duration of each processing stage.\n");
+        text.append("# TYPE bmx_stage_duration_seconds histogram\n");
+        DURATIONS.forEach((stage, histogram) -> {
+            long[] counts = histogram.counts();
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                String le = i < Histogram.BUCKETS.length ? Double.toString(Histogram.BUCKETS[i]) : "+Inf";
+                text.append("bmx_stage_duration_seconds_bucket{stage=\"").append(stage.label())
+                        .append("\",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+            }
+            text.append("bmx_stage_duration_seconds_sum{stage=\"").append(stage.label()).append("\"} ")
+                    .append(histogram.sum()).append('\n');
+            text.append("bmx_stage_duration_seconds_count{stage=\"").append(stage.label()).append("\"} ")
+                    .append(cumulative).append('\n');
+        });
+
+        appendCounter(text, "bmx_stage_bytes_total", "Bytes transferred or written by each processing stage.", BYTES);
+        appendCounter(text, "bmx_stage_points_total", "Data points handled by each processing stage.", POINTS);
+        return text.toString();
+    }
+
+    /**
+     * Writes the current metrics to a file in the Prometheus text exposition format,
+     * replacing it atomically so a collector never reads a partial file.
+     *
+     * @param path The file to write
+     * @return true if the operation was successful, false otherwise
+     */
+    public static boolean writeSnapshot(Path path) {
+        try {
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(tmp, scrape(), StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to write metrics snapshot", e);
+            return false;
+        }
+    }
+
+    private static void appendCounter(StringBuilder text, String name, String help, Map<Stage, LongAdder> counters) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        counters.forEach((stage, counter) -> text.append(name).append("{stage=\"").append(stage.label())
+                .append("\"} ").append(counter.sum()).append('\n'));
+    }
+
+}
@@ -0,0 +1,24 @@
+package dev.asjordi.metrics;
+
+/**
+ * Stages of a data processing run that are timed and counted.
+ */
+public enum Stage {
+    /** A whole call to processData. */
+    RUN,
+    /** An HTTP request to the BMX API, bytes are the response body. */
+    HTTP,
+    /** Parsing a response into the index, points are the data points merged. */
+    PARSE,
+    /** Writing the store, aggregates or JSON export, bytes are the bytes written. */
+    PERSIST,
+    /** Rendering one chart. */
+    RENDER;
+
+    /**
+     * @return The stage name used as metric label
+     */
+    public String label() {
+        return name().toLowerCase();
+    }
+}
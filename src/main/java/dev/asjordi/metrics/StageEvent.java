@@ -0,0 +1,35 @@
+package dev.asjordi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted for every timed processing stage.
+ * Recorded with the event duration, so a recording shows where the time of each run goes.
+ */
+@Name("dev.asjordi.Stage")
+@Label("BMX Processing Stage")
+@Category({"BMX", "Processing"})
+@Description("A timed stage of the BMX data processing run")
+@StackTrace(false)
+class StageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Series")
+    String series;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Points")
+    long points;
+
+}
@@ -0,0 +1,64 @@
+package dev.asjordi.metrics;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Times a processing stage from its creation until it is closed.
+ * On close the duration, bytes and points are added to the {@link Metrics} registry
+ * and a {@link StageEvent} is committed to the Flight Recorder when it is enabled.
+ * The event is only created once the Flight Recorder has been started, since the first
+ * event class loaded otherwise initializes the recorder and delays startup by several
+ * hundred milliseconds.
+ * Meant to be used in a try-with-resources block by a single thread.
+ */
+public final class StageTimer implements AutoCloseable {
+
+    private final Stage stage;
+    private final StageEvent event = FlightRecorder.isInitialized() ? new StageEvent() : null;
+    private final long start = System.nanoTime();
+    private long bytes;
+    private long points;
+
+    StageTimer(Stage stage, String series) {
+        this.stage = stage;
+        if (event == null) return;
+        event.stage = stage.label();
+        event.series = series;
+        event.begin();
+    }
+
+    /**
+     * Adds to the bytes transferred or written by the stage.
+     *
+     * @param bytes The number of bytes
+     */
+    public void addBytes(long bytes) {
+        this.bytes += bytes;
+    }
+
+    /**
+     * Adds to the data points handled by the stage.
+     *
+     * @param points The number of data points
+     */
+    public void addPoints(long points) {
+        this.points += points;
+    }
+
+    /**
+     * Records the stage.
+     */
+    @Override
+    public void close() {
+        Metrics.record(stage, System.nanoTime() - start, bytes, points);
+        if (event == null) return;
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = bytes;
+            event.points = points;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package dev.asjordi.model;
+
+import dev.asjordi.util.FixedPoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact, primitive representation of a series of exchange rate data points.
+ * Dates are kept in an int array of epoch days and values in a long array scaled by
+ * {@link FixedPoint#FACTOR}, both in ascending date order. Compared to a list of
+ * {@link Dato} objects this avoids one String, one LocalDate and one Dato per point,
+ * and values never need to be re-parsed. Conversion to and from {@link Series} is lossless.
+ * Instances are immutable; the arrays are never exposed for writing.
+ */
+public final class PrimitiveSeries {
+
+    private static final int[] NO_DAYS = new int[0];
+    private static final long[] NO_VALUES = new long[0];
+
+    private final String idSerie;
+    private final String titulo;
+    private final int[] epochDays;
+    private final long[] values;
+
+    /**
+     * Creates a series from primitive columns, copying the first {@code size} elements.
+     *
+     * @param idSerie The identifier of the series
+     * @param titulo The descriptive title of the series
+     * @param epochDays The dates as days since 1970-01-01, in ascending order
+     * @param values The values scaled by {@link FixedPoint#FACTOR}
+     * @param size The number of observations to take from the arrays
+     */
+    public PrimitiveSeries(String idSerie, String titulo, int[] epochDays, long[] values, int size) {
+        this.idSerie = idSerie;
+        this.titulo = titulo;
+        this.epochDays = size == 0 ? NO_DAYS : Arrays.copyOf(epochDays, size);
+        this.values = size == 0 ? NO_VALUES : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Converts the Jackson model to the primitive representation.
+     * Each value string is parsed exactly once. The data points are sorted by date
+     * only if they are not already in order.
+     *
+     * @param series The series to convert
+     * @return The primitive series
+     */
+    public static PrimitiveSeries fromSeries(Series series) {
+        List<Dato> datos = series.getDatos() == null ? List.of() : series.getDatos();
+        for (int i = 1; i < datos.size(); i++) {
+            if (datos.get(i - 1).getFecha().isAfter(datos.get(i).getFecha())) {
+                datos = new ArrayList<>(datos);
+                datos.sort(Comparator.comparing(Dato::getFecha));
+                break;
+            }
+        }
+        int size = datos.size();
+        int[] epochDays = new int[size];
+        long[] values = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            epochDays[i] = (int) datos.get(i).getFecha().toEpochDay();
+            values[i] = FixedPoint.parse(datos.get(i).getDato());
+        }
+
+        return new PrimitiveSeries(series.getIdSerie(), series.getTitulo(), epochDays, values, size);
+    }
+
+    /**
+     * Converts the primitive representation back to the Jackson model.
+     *
+     * @return A Series with one Dato per observation
+     */
+    public Series toSeries() {
+        List<Dato> datos = new ArrayList<>(epochDays.length);
+
+        for (int i = 0; i < epochDays.length; i++) {
+            Dato dato = new Dato();
+            dato.setFecha(LocalDate.ofEpochDay(epochDays[i]));
+            dato.setDato(FixedPoint.format(values[i]));
+            datos.add(dato);
+        }
+
+        Series series = new Series();
+        series.setIdSerie(idSerie);
+        series.setTitulo(titulo);
+        series.setDatos(datos);
+        return series;
+    }
+
+    public String getIdSerie() {
+        return idSerie;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    /**
+     * @return The number of observations in the series
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * @return true if the series holds no observations
+     */
+    public boolean isEmpty() {
+        return epochDays.length == 0;
+    }
+
+    /**
+     * @param index The position of the observation
+     * @return The date of the observation as days since 1970-01-01
+     */
+    public int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * @param index The position of the observation
+     * @return The value of the observation scaled by {@link FixedPoint#FACTOR}
+     */
+    public long value(int index) {
+        return values[index];
+    }
+
+    /**
+     * @param index The position of the observation
+     * @return The value of the observation as a double, NaN if it is missing
+     */
+    public double doubleValue(int index) {
+        return FixedPoint.toDouble(values[index]);
+    }
+
+    /**
+     * Finds the position of a date.
+     *
+     * @param epochDay The date as days since 1970-01-01
+     * @return The position of the date, or {@code -(insertion point) - 1} if it is not present
+     */
+    public int indexOf(int epochDay) {
+        return Arrays.binarySearch(epochDays, epochDay);
+    }
+
+    /**
+     * Gets the observations from a date to the end of the series.
+     *
+     * @param fromEpochDay The first date to keep as days since 1970-01-01
+     * @return A series with the observations on or after the date, or this series if all of them are
+     */
+    public PrimitiveSeries since(int fromEpochDay) {
+        int start = indexOf(fromEpochDay);
+        if (start < 0) start = -start - 1;
+        if (start == 0) return this;
+
+        int size = epochDays.length - start;
+        return new PrimitiveSeries(idSerie, titulo,
+                Arrays.copyOfRange(epochDays, start, epochDays.length),
+                Arrays.copyOfRange(values, start, values.length), size);
+    }
+
+    /**
+     * @return A copy of the epoch-day column
+     */
+    public int[] epochDays() {
+        return epochDays.clone();
+    }
+
+    /**
+     * @return A copy of the value column
+     */
+    public long[] values() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PrimitiveSeries other)) return false;
+        return Objects.equals(idSerie, other.idSerie)
+                && Objects.equals(titulo, other.titulo)
+                && Arrays.equals(epochDays, other.epochDays)
+                && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(idSerie, titulo);
+        result = 31 * result + Arrays.hashCode(epochDays);
+        return 31 * result + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "PrimitiveSeries(idSerie=" + idSerie + ", size=" + epochDays.length + ")";
+    }
+
+}
@@ -0,0 +1,167 @@
+package dev.asjordi.request;
+
+import dev.asjordi.logger.LoggerConfig;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breaker in front of the Banxico API.
+ * The breaker is closed while requests succeed. It opens once a minimum number of the
+ * last {@value #WINDOW} attempts failed and they are at least three quarters of them, and
+ * requests then fail immediately instead of waiting for an API that is down. Counting a
+ * share of recent attempts rather than consecutive failures keeps concurrent requests to
+ * a flaky API, whose failures and timeouts arrive together, from opening it. Once the open
+ * period has passed it lets a single probe through: a successful probe closes it again,
+ * a failed one opens it for another period.
+ * Uses a {@link ReentrantLock} rather than synchronized so virtual threads do not pin
+ * their carrier threads.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final int WINDOW = 20;
+
+    /**
+     * The states of the breaker.
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int failureThreshold;
+    private final long openNanos;
+    private final boolean[] outcomes = new boolean[WINDOW];
+    private State state = State.CLOSED;
+    private int attempts;
+    private int failures;
+    private int next;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * Creates a closed breaker.
+     *
+     * @param failureThreshold The number of failed attempts among the recent ones that opens the breaker
+     * @param openDuration How long the breaker stays open before letting a probe through
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold <= 0) throw new IllegalArgumentException("Threshold must be positive: " + failureThreshold);
+
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Asks whether a request may be sent.
+     * When the open period has passed, the first caller is let through as the probe.
+     * Every permit must be followed by {@link #recordSuccess()}, {@link #recordFailure()} or {@link #release()}.
+     *
+     * @return true if the request may be sent, false if it must fail immediately
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                probing = false;
+                LOGGER.log(Level.INFO, () -> "Circuit breaker half-open, probing the API");
+            }
+            if (state == State.CLOSED) return true;
+            if (state == State.HALF_OPEN && !probing) {
+                probing = true;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records an attempt that got an answer from the API, closing the breaker.
+     */
+    public void recordSuccess() {
+        lock.lock();
+        try {
+            if (state != State.CLOSED) {
+                LOGGER.log(Level.INFO, () -> "Circuit breaker closed, API recovered");
+                state = State.CLOSED;
+                reset();
+            }
+            record(false);
+            probing = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a failed attempt, opening the breaker when too many recent attempts failed or the probe failed.
+     */
+    public void recordFailure() {
+        lock.lock();
+        try {
+            record(true);
+            if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold && failures * 4 >= attempts * 3)) {
+                int failed = failures;
+                int total = attempts;
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                probing = false;
+                reset();
+                LOGGER.log(Level.WARNING, () -> "Circuit breaker open after " + failed + " of " + total + " attempts failed");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a permit whose request ended without an outcome, such as an interrupted
+     * request, so a half-open breaker lets the next caller through as the probe.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            probing = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the outcome of an attempt to the window, replacing the oldest one once it is full.
+     */
+    private void record(boolean failed) {
+        if (attempts == WINDOW) {
+            if (outcomes[next]) failures--;
+        } else {
+            attempts++;
+        }
+        outcomes[next] = failed;
+        if (failed) failures++;
+        next = (next + 1) % WINDOW;
+    }
+
+    private void reset() {
+        Arrays.fill(outcomes, false);
+        attempts = 0;
+        failures = 0;
+        next = 0;
+    }
+
+    /**
+     * @return The current state of the breaker
+     */
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package dev.asjordi.request;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An inclusive range of dates requested from the Banxico API.
+ *
+ * @param from The first date of the range
+ * @param to The last date of the range
+ */
+public record DateWindow(LocalDate from, LocalDate to) {
+
+    /**
+     * Splits an inclusive date range into consecutive windows of the given length.
+     * The last window is cut short at the end of the range.
+     *
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @param length The length of each window
+     * @return The windows in date order, empty if the range is empty
+     */
+    public static List<DateWindow> split(LocalDate from, LocalDate to, Period length) {
+        List<DateWindow> windows = new ArrayList<>();
+        LocalDate start = from;
+
+        while (!start.isAfter(to)) {
+            LocalDate next = start.plus(length);
+            if (!next.isAfter(start)) throw new IllegalArgumentException("Window length must be positive: " + length);
+
+            LocalDate end = next.minusDays(1).isAfter(to) ? to : next.minusDays(1);
+            windows.add(new DateWindow(start, end));
+            start = next;
+        }
+
+        return windows;
+    }
+
+    @Override
+    public String toString() {
+        return from + "/" + to;
+    }
+
+}
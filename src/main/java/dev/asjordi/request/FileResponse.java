@@ -0,0 +1,89 @@
+package dev.asjordi.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import javax.net.ssl.SSLSession;
+
+/**
+ * HTTP response whose body is read from a file, used to serve cached responses
+ * through the same streaming path as live ones.
+ * The body stream is opened on the first call to {@link #body()}.
+ */
+class FileResponse implements HttpResponse<InputStream> {
+
+    private final int statusCode;
+    private final HttpRequest request;
+    private final Path body;
+    private InputStream stream;
+
+    /**
+     * Creates a response for the given request.
+     *
+     * @param statusCode The status code reported to the caller
+     * @param request The request the response answers
+     * @param body The file holding the body, or null for an empty body
+     */
+    FileResponse(int statusCode, HttpRequest request, Path body) {
+        this.statusCode = statusCode;
+        this.request = request;
+        this.body = body;
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpRequest request() {
+        return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<InputStream>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return HttpHeaders.of(Map.of(), (name, value) -> true);
+    }
+
+    @Override
+    public synchronized InputStream body() {
+        if (stream == null) {
+            try {
+                stream = body == null ? InputStream.nullInputStream() : Files.newInputStream(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return stream;
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return request.version().orElse(HttpClient.Version.HTTP_1_1);
+    }
+
+}
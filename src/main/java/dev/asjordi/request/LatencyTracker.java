@@ -0,0 +1,61 @@
+package dev.asjordi.request;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latencies of the most recent successful requests, used to decide when a request is
+ * slow enough to be hedged. Keeps a fixed number of samples in a ring buffer, so old
+ * samples stop counting once the API speeds up or slows down.
+ */
+public class LatencyTracker {
+
+    private static final int CAPACITY = 256;
+    private static final int MIN_SAMPLES = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] samples = new long[CAPACITY];
+    private int count;
+    private int next;
+
+    /**
+     * Adds the latency of a request.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(long nanos) {
+        lock.lock();
+        try {
+            samples[next] = nanos;
+            next = (next + 1) % CAPACITY;
+            count = Math.min(count + 1, CAPACITY);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets a percentile of the recent latencies.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency below which that share of recent requests finished, or empty
+     *         while there are too few samples to tell
+     */
+    public Optional<Duration> percentile(double percentile) {
+        long[] sorted;
+        lock.lock();
+        try {
+            if (count < MIN_SAMPLES) return Optional.empty();
+            sorted = Arrays.copyOf(samples, count);
+        } finally {
+            lock.unlock();
+        }
+
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return Optional.of(Duration.ofNanos(sorted[Math.clamp(rank, 0, sorted.length - 1)]));
+    }
+
+}
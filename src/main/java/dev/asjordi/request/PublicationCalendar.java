@@ -0,0 +1,161 @@
+package dev.asjordi.request;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Calendar of the days Banxico publishes exchange rates: Mexican bank business days.
+ * Rates are not published on weekends nor on the bank holidays set by the CNBV:
+ * <ul>
+ *   <li>January 1, May 1, September 16, December 12 and December 25</li>
+ *   <li>November 2, except from 2001 to 2005</li>
+ *   <li>Holy Thursday and Good Friday</li>
+ *   <li>The first Monday of February and the third Monday of November since 2006, and
+ *       the third Monday of March since 2007, which were February 5, November 20 and
+ *       March 21 before</li>
+ *   <li>The day of the presidential inauguration, every six years: December 1 until 2018
+ *       and October 1 since 2024</li>
+ * </ul>
+ * One-off closures and the holidays dropped in the 1990s, such as May 5, are treated as
+ * publication days, which at most costs a request that returns no data points.
+ * The FIX rate of a publication day is determined at {@value #PUBLICATION_HOUR}:00 Mexico
+ * City time and is available from then on.
+ * The holidays of each year are computed once and kept as a bit set of days of the year,
+ * so every lookup is O(1). Instances are thread-safe.
+ */
+public class PublicationCalendar {
+
+    private static final int PUBLICATION_HOUR = 12;
+    private static final int NOVEMBER_2_WORKED_FROM = 2001;
+    private static final int NOVEMBER_2_WORKED_UNTIL = 2005;
+    private static final int MONDAY_HOLIDAYS_SINCE = 2006;
+    private static final int MARCH_MONDAY_HOLIDAY_SINCE = 2007;
+    private static final int LAST_DECEMBER_INAUGURATION = 2018;
+
+    private final ConcurrentMap<Integer, BitSet> holidays = new ConcurrentHashMap<>();
+
+    /**
+     * Checks whether rates are published on a date.
+     *
+     * @param fecha The date to check
+     * @return true if the date is a bank business day
+     */
+    public boolean isPublicationDay(LocalDate fecha) {
+        DayOfWeek day = fecha.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) return false;
+        return !holidays.computeIfAbsent(fecha.getYear(), PublicationCalendar::holidaysOf).get(fecha.getDayOfYear());
+    }
+
+    /**
+     * Narrows a date range to its first and last publication days.
+     *
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return The narrowed range, or an empty Optional if no rate is published in the range
+     */
+    public Optional<DateWindow> trim(LocalDate from, LocalDate to) {
+        LocalDate start = from;
+        while (!start.isAfter(to) && !isPublicationDay(start)) start = start.plusDays(1);
+        if (start.isAfter(to)) return Optional.empty();
+
+        LocalDate end = to;
+        while (!isPublicationDay(end)) end = end.minusDays(1);
+        return Optional.of(new DateWindow(start, end));
+    }
+
+    /**
+     * Checks whether rates are published on any day of a range.
+     *
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return true if the range has at least one publication day
+     */
+    public boolean hasPublicationDay(LocalDate from, LocalDate to) {
+        return trim(from, to).isPresent();
+    }
+
+    /**
+     * Finds the next time a rate is published.
+     *
+     * @param now The current time, in the Mexico City zone
+     * @return The publication time of the first publication day that is still to come
+     */
+    public ZonedDateTime nextPublication(ZonedDateTime now) {
+        LocalDate day = now.toLocalDate();
+        if (!now.toLocalTime().isBefore(LocalTime.of(PUBLICATION_HOUR, 0))) day = day.plusDays(1);
+        while (!isPublicationDay(day)) day = day.plusDays(1);
+        return day.atTime(PUBLICATION_HOUR, 0).atZone(now.getZone());
+    }
+
+    /**
+     * Computes the bank holidays of a year.
+     *
+     * @return The holidays as a set of days of the year
+     */
+    private static BitSet holidaysOf(int year) {
+        BitSet days = new BitSet(367);
+        add(days, LocalDate.of(year, Month.JANUARY, 1));
+        add(days, LocalDate.of(year, Month.MAY, 1));
+        add(days, LocalDate.of(year, Month.SEPTEMBER, 16));
+        add(days, LocalDate.of(year, Month.DECEMBER, 12));
+        add(days, LocalDate.of(year, Month.DECEMBER, 25));
+        if (year < NOVEMBER_2_WORKED_FROM || year > NOVEMBER_2_WORKED_UNTIL) add(days, LocalDate.of(year, Month.NOVEMBER, 2));
+
+        LocalDate easter = easterSunday(year);
+        add(days, easter.minusDays(3));
+        add(days, easter.minusDays(2));
+
+        boolean mondays = year >= MONDAY_HOLIDAYS_SINCE;
+        add(days, mondays ? nthMonday(year, Month.FEBRUARY, 1) : LocalDate.of(year, Month.FEBRUARY, 5));
+        add(days, mondays ? nthMonday(year, Month.NOVEMBER, 3) : LocalDate.of(year, Month.NOVEMBER, 20));
+        add(days, year >= MARCH_MONDAY_HOLIDAY_SINCE
+                ? nthMonday(year, Month.MARCH, 3)
+                : LocalDate.of(year, Month.MARCH, 21));
+
+        if (year % 6 == 2) {
+            add(days, year <= LAST_DECEMBER_INAUGURATION
+                    ? LocalDate.of(year, Month.DECEMBER, 1)
+                    : LocalDate.of(year, Month.OCTOBER, 1));
+        }
+
+        return days;
+    }
+
+    private static void add(BitSet days, LocalDate fecha) {
+        days.set(fecha.getDayOfYear());
+    }
+
+    private static LocalDate nthMonday(int year, Month month, int n) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Computes Easter Sunday of the Gregorian calendar with the anonymous Gregorian algorithm.
+     */
+    private static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+
+}
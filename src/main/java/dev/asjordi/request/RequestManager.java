@@ -1,62 +1,186 @@
 package dev.asjordi.request;
 
+import dev.asjordi.config.AppConfig;
 import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.metrics.Metrics;
+import dev.asjordi.metrics.Stage;
 import dev.asjordi.util.FileUtils;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Manages HTTP requests to the Banxico API.
+ * Every configured series is requested on its own virtual thread through a
+ * single shared HttpClient, subject to the Banxico rate limit. Streaming requests
+ * go through an on-disk {@link ResponseCache} with conditional revalidation.
+ * <p>
+ * Failed attempts are retried after a jittered exponential backoff ({@link RetryPolicy}),
+ * and every attempt has a deadline, so the time a request can take is bounded. An attempt
+ * slower than a percentile of the recent latencies gets a second, hedged request and the
+ * first answer wins. A {@link CircuitBreaker} stops requests while the API keeps failing,
+ * so callers can fall back to the data they already have.
  */
 public class RequestManager {
 
     private static final Logger LOGGER = LoggerConfig.getLogger();
 
-    private static final String BASE_API_URL = "https://www.banxico.org.mx/SieAPIRest/service/v1/series/SF43718/datos/";
+    private static final String DATA_PATH = "/datos/";
     private static final String DATE_FORMAT = "yyyy-MM-dd";
     private static final String DEFAULT_LAST_FETCH_DATE = "2023-01-01";
     private static final String API_TOKEN_KEY = "API_TOKEN_BMX";
     private static final String ACCEPT_HEADER = "Accept";
     private static final String JSON_MIME_TYPE = "application/json";
     private static final String BMX_TOKEN_HEADER = "Bmx-Token";
-    private static final int REQUEST_TIMEOUT_SECONDS = 60;
     private static final int CONNECT_TIMEOUT_SECONDS = 20;
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final int NOT_MODIFIED = 304;
+    private static final Duration CACHE_MAX_AGE = Duration.ofDays(7);
 
-    private final String apiUrl;
+    private final List<String> series;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
     private final Properties properties;
+    private final HttpClient client;
+    private final TokenBucket rateLimiter;
+    private final ResponseCache cache;
+    private final PublicationCalendar calendar = new PublicationCalendar();
+    private final Duration requestTimeout;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker breaker;
+    private final LatencyTracker latencies = new LatencyTracker();
+    private final int hedgePercentile;
 
     /**
-     * Initializes a new RequestManager with the configured API URL and environment variables.
+     * Initializes a new RequestManager for the configured series and environment variables.
      */
     public RequestManager() {
-        this.apiUrl = buildApiUrl();
+        this(AppConfig.getSeries(), new TokenBucket(AppConfig.getRateLimitRequests(),
+                Duration.ofSeconds(AppConfig.getRateLimitPeriodSeconds())));
+    }
+
+    /**
+     * Initializes a new RequestManager for the given series.
+     * 
+     * @param series The SIE series identifiers to fetch
+     * @param rateLimiter The limiter every request must take a token from
+     */
+    public RequestManager(List<String> series, TokenBucket rateLimiter) {
+        this(series, rateLimiter, new ResponseCache());
+    }
+
+    /**
+     * Initializes a new RequestManager for the given series and response cache,
+     * with the configured retry, hedging and circuit breaker settings.
+     * 
+     * @param series The SIE series identifiers to fetch
+     * @param rateLimiter The limiter every request must take a token from
+     * @param cache The on-disk cache of responses
+     */
+    public RequestManager(List<String> series, TokenBucket rateLimiter, ResponseCache cache) {
+        this(series, rateLimiter, cache,
+                new RetryPolicy(AppConfig.getRetryAttempts(), Duration.ofMillis(AppConfig.getRetryBaseDelayMillis()),
+                        Duration.ofMillis(AppConfig.getRetryMaxDelayMillis())),
+                new CircuitBreaker(AppConfig.getBreakerFailures(), Duration.ofSeconds(AppConfig.getBreakerOpenSeconds())));
+    }
+
+    /**
+     * Initializes a new RequestManager for the given series, response cache and resilience settings.
+     * 
+     * @param series The SIE series identifiers to fetch
+     * @param rateLimiter The limiter every request must take a token from
+     * @param cache The on-disk cache of responses
+     * @param retryPolicy The policy deciding which failed attempts are retried and when
+     * @param breaker The circuit breaker every attempt goes through
+     */
+    public RequestManager(List<String> series, TokenBucket rateLimiter, ResponseCache cache,
+                          RetryPolicy retryPolicy, CircuitBreaker breaker) {
+        this.series = series;
+        this.startDate = getLastFetchDate();
+        this.endDate = LocalDate.now();
         this.properties = loadEnvironmentVariables();
+        this.client = createHttpClient();
+        this.rateLimiter = rateLimiter;
+        this.cache = cache;
+        this.requestTimeout = Duration.ofSeconds(AppConfig.getRequestTimeoutSeconds());
+        this.retryPolicy = retryPolicy;
+        this.breaker = breaker;
+        this.hedgePercentile = AppConfig.getHedgePercentile();
+        cache.prune(CACHE_MAX_AGE);
+        LOGGER.log(Level.INFO, () -> "Series to fetch: " + series);
+        LOGGER.log(Level.INFO, () -> "Requests give up after " + retryPolicy.worstCase(requestTimeout).toSeconds() + "s at most");
+    }
+
+    public List<String> getSeries() {
+        return series;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public PublicationCalendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * @return true if the circuit breaker is not closed, so the API is failing or still being probed
+     */
+    public boolean isDegraded() {
+        return breaker.getState() != CircuitBreaker.State.CLOSED;
     }
 
     /**
-     * Builds the complete API URL with date range.
+     * Builds the complete API URL of a series with date range.
      * 
+     * @param idSerie The identifier of the series
+     * @param from The first date of the range
+     * @param to The last date of the range
      * @return The complete API URL
      */
-    private String buildApiUrl() {
+    private String buildApiUrl(String idSerie, LocalDate from, LocalDate to) {
         LOGGER.log(Level.INFO, () -> "Building API URL");
 
-        LocalDate lastFetch = getLastFetchDate();
-        LocalDate today = LocalDate.now();
-
-        String url = BASE_API_URL + lastFetch + "/" + today;
+        String url = AppConfig.getApiUrl() + idSerie + DATA_PATH + from + "/" + to;
         LOGGER.log(Level.INFO, () -> "API URL: " + url);
 
         return url;
@@ -107,37 +231,41 @@ public class RequestManager {
 
     /**
      * Creates an HTTP client with configured settings.
+     * The client is shared by every request made by this manager.
      * 
      * @return Configured HttpClient
      */
     private HttpClient createHttpClient() {
-        HttpClient client = HttpClient.newBuilder()
+        HttpClient httpClient = HttpClient.newBuilder()
                 .version(HttpClient.Version.HTTP_2)
                 .followRedirects(HttpClient.Redirect.ALWAYS)
                 .connectTimeout(Duration.of(CONNECT_TIMEOUT_SECONDS, ChronoUnit.SECONDS))
                 .build();
 
         LOGGER.log(Level.INFO, () -> "HTTP client built successfully");
-        return client;
+        return httpClient;
     }
 
     /**
      * Creates an HTTP request with configured settings.
      * 
+     * @param apiUrl The URL to request
+     * @param headers Additional headers, such as conditional request validators
      * @return Optional containing the HTTP request if successful, empty otherwise
      */
-    private Optional<HttpRequest> createHttpRequest() {
+    private Optional<HttpRequest> createHttpRequest(String apiUrl, Map<String, String> headers) {
         LOGGER.log(Level.INFO, () -> "Building HTTP request");
 
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI(this.apiUrl))
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .uri(new URI(apiUrl))
                     .version(HttpClient.Version.HTTP_2)
                     .header(ACCEPT_HEADER, JSON_MIME_TYPE)
                     .header(BMX_TOKEN_HEADER, this.properties.getProperty(API_TOKEN_KEY))
-                    .timeout(Duration.of(REQUEST_TIMEOUT_SECONDS, ChronoUnit.SECONDS))
-                    .GET()
-                    .build();
+                    .timeout(requestTimeout)
+                    .GET();
+            headers.forEach(builder::header);
+            HttpRequest request = builder.build();
 
             LOGGER.log(Level.INFO, () -> "HTTP request built successfully");
             return Optional.of(request);
@@ -148,31 +276,404 @@ public class RequestManager {
     }
 
     /**
-     * Makes an HTTP request to the Banxico API.
+     * Makes an HTTP request to the Banxico API for the first configured series.
      * 
      * @return Optional containing the HTTP response if successful, empty otherwise
      */
     public Optional<HttpResponse<String>> makeRequest() {
+        return send(series.get(0), startDate, endDate, HttpResponse.BodyHandlers::ofString, Map.of());
+    }
+
+    /**
+     * Makes an HTTP request to the Banxico API without buffering the response body.
+     * The caller is responsible for closing the body stream.
+     * 
+     * @param idSerie The identifier of the series to request
+     * @return Optional containing the HTTP response with the body as a stream if successful, empty otherwise
+     */
+    public Optional<HttpResponse<InputStream>> makeStreamingRequest(String idSerie) {
+        return makeStreamingRequest(idSerie, startDate, endDate);
+    }
+
+    /**
+     * Makes an HTTP request to the Banxico API for a date range, going through the response cache.
+     * Ranges that end before today are final, so once cached they are served without a request.
+     * Other cached ranges are revalidated with If-None-Match/If-Modified-Since, and a 304 response
+     * serves the cached body. New bodies are downloaded to the cache and streamed from disk,
+     * so the body is never buffered in memory. The caller is responsible for closing the body stream.
+     * 
+     * @param idSerie The identifier of the series to request
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return Optional containing the HTTP response with the body as a stream if successful, empty otherwise
+     */
+    public Optional<HttpResponse<InputStream>> makeStreamingRequest(String idSerie, LocalDate from, LocalDate to) {
+        String key = ResponseCache.key(idSerie, from, to);
+        Optional<ResponseCache.Entry> cached = cache.get(key);
+        boolean finalized = to.isBefore(LocalDate.now());
+
+        if (cached.isPresent() && cached.get().finalized()) {
+            LOGGER.log(Level.INFO, () -> "Serving finalized range from cache: " + key);
+            return createHttpRequest(buildApiUrl(idSerie, from, to), Map.of())
+                    .map(request -> new FileResponse(200, request, cached.get().body()));
+        }
+
+        Map<String, String> validators = new LinkedHashMap<>();
+        cached.ifPresent(entry -> {
+            if (entry.etag() != null) validators.put(IF_NONE_MATCH_HEADER, entry.etag());
+            if (entry.lastModified() != null) validators.put(IF_MODIFIED_SINCE_HEADER, entry.lastModified());
+        });
+
+        List<Path> downloads = new ArrayList<>();
+        Supplier<HttpResponse.BodyHandler<Path>> bodyHandlers = () -> {
+            Path download = cache.tempFile(key, downloads.size());
+            downloads.add(download);
+            return HttpResponse.BodyHandlers.ofFile(download);
+        };
+
+        var response = send(idSerie, from, to, bodyHandlers, validators);
+        Path download = response.map(HttpResponse::body).orElse(null);
+        downloads.stream().filter(path -> !path.equals(download)).forEach(RequestManager::deleteQuietly);
+        if (response.isEmpty()) return Optional.empty();
+
+        var httpResponse = response.get();
+
+        if (httpResponse.statusCode() == NOT_MODIFIED && cached.isPresent()) {
+            deleteQuietly(download);
+            LOGGER.log(Level.INFO, () -> "Response not modified, serving from cache: " + key);
+            return Optional.of(new FileResponse(200, httpResponse.request(), cached.get().body()));
+        }
+
+        if (httpResponse.statusCode() != 200) {
+            deleteQuietly(download);
+            return Optional.of(new FileResponse(httpResponse.statusCode(), httpResponse.request(), null));
+        }
+
+        var entry = cache.put(key, download,
+                httpResponse.headers().firstValue(ETAG_HEADER).orElse(null),
+                httpResponse.headers().firstValue(LAST_MODIFIED_HEADER).orElse(null),
+                finalized);
+
+        if (cached.isPresent() && entry.sha256().equals(cached.get().sha256())) {
+            LOGGER.log(Level.INFO, () -> "Response body unchanged since last request: " + key);
+        }
+
+        return Optional.of(new FileResponse(200, httpResponse.request(), entry.body()));
+    }
+
+    /**
+     * Requests every configured series concurrently, one virtual thread per series,
+     * and hands each streamed response to the given handler on the same thread.
+     * A series whose request or handler fails is logged and left out of the result.
+     * 
+     * @param handler Function receiving the series identifier and its response
+     * @return The handler results by series identifier, in configured order
+     * @throws RuntimeException if every series failed
+     */
+    public <R> Map<String, R> fetchAll(BiFunction<String, Optional<HttpResponse<InputStream>>, R> handler) {
+        return fetchAll(startDate, endDate, handler);
+    }
+
+    /**
+     * Requests a date range of every configured series concurrently, one virtual thread per series,
+     * and hands each streamed response to the given handler on the same thread.
+     * The range is narrowed to its first and last publication days, and nothing is requested
+     * when rates are not published on any day of the range.
+     * A series whose request or handler fails is logged and left out of the result.
+     * 
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @param handler Function receiving the series identifier and its response
+     * @return The handler results by series identifier, in configured order
+     * @throws RuntimeException if every series failed
+     */
+    public <R> Map<String, R> fetchAll(LocalDate from, LocalDate to,
+                                       BiFunction<String, Optional<HttpResponse<InputStream>>, R> handler) {
+        return forEachSeries(from, to, (id, window) -> handler.apply(id,
+                makeStreamingRequest(id, window.from(), window.to())));
+    }
+
+    /**
+     * Runs a task for a date range of every configured series concurrently, one virtual thread per series.
+     * The range is narrowed to its first and last publication days, and nothing is run
+     * when rates are not published on any day of the range.
+     * A series whose task fails is logged and left out of the result.
+     * 
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @param task Function receiving the series identifier and the narrowed range
+     * @return The task results by series identifier, in configured order
+     * @throws RuntimeException if every series failed
+     */
+    public <R> Map<String, R> forEachSeries(LocalDate from, LocalDate to, BiFunction<String, DateWindow, R> task) {
+        var window = calendar.trim(from, to);
+        if (window.isEmpty()) {
+            LOGGER.log(Level.INFO, () -> "No publication days from " + from + " to " + to + ", nothing to fetch");
+            return Map.of();
+        }
+
+        LOGGER.log(Level.INFO, () -> "Fetching " + series.size() + " series concurrently from " + window.get());
+
+        Map<String, DateWindow> windows = new LinkedHashMap<>();
+        series.forEach(id -> windows.put(id, window.get()));
+        return runAll(windows, task);
+    }
+
+    /**
+     * Runs a task for each given series concurrently, one virtual thread per series, over a
+     * range that starts at the first date of that series. Each range is narrowed to its first
+     * and last publication days, and series whose range has no publication day are skipped.
+     * A series whose task fails is logged and left out of the result.
+     * 
+     * @param from The first date of the range of each series, by series identifier
+     * @param to The last date of every range
+     * @param task Function receiving the series identifier and its narrowed range
+     * @return The task results by series identifier, in the iteration order of the given dates
+     * @throws RuntimeException if every series that was run failed
+     */
+    public <R> Map<String, R> forEachSeries(Map<String, LocalDate> from, LocalDate to,
+                                            BiFunction<String, DateWindow, R> task) {
+        Map<String, DateWindow> windows = new LinkedHashMap<>();
+        from.forEach((id, first) -> calendar.trim(first, to).ifPresentOrElse(
+                window -> windows.put(id, window),
+                () -> LOGGER.log(Level.INFO, () -> "No publication days of " + id + " from " + first + " to " + to)));
+
+        if (windows.isEmpty()) return Map.of();
+
+        LOGGER.log(Level.INFO, () -> "Fetching " + windows.size() + " series concurrently: " + windows);
+        return runAll(windows, task);
+    }
+
+    /**
+     * Runs a task for every series window on its own virtual thread and collects the results.
+     *
+     * @throws RuntimeException if every task failed
+     */
+    private <R> Map<String, R> runAll(Map<String, DateWindow> windows, BiFunction<String, DateWindow, R> task) {
+        Map<String, Future<R>> futures = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            windows.forEach((id, window) -> futures.put(id, executor.submit(() -> task.apply(id, window))));
+        }
+
+        Map<String, R> results = new LinkedHashMap<>();
+        futures.forEach((id, future) -> {
+            try {
+                results.put(id, future.get());
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.SEVERE, "Failed to fetch series " + id, e.getCause());
+            } catch (InterruptedException e) {
+                LOGGER.log(Level.SEVERE, "Fetch of series " + id + " interrupted", e);
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        if (results.isEmpty() && !windows.isEmpty()) {
+            throw new RuntimeException("Error getting data from API");
+        }
+
+        return results;
+    }
+
+    /**
+     * Sends the HTTP request for a series to the Banxico API with the given body handlers.
+     * Failed attempts, from connection errors and timeouts to 429 and 5xx responses, are
+     * retried after the delay of the retry policy. Nothing is sent while the circuit breaker
+     * is open. When every attempt gets a retryable status, the last response is returned.
+     * An attempt that is interrupted or fails unexpectedly gives its permit back to the breaker,
+     * so a half-open breaker is never left waiting for a probe that will not report.
+     * 
+     * @param idSerie The identifier of the series to request
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @param bodyHandlers Creates the handler that consumes the response body of each request sent
+     * @param headers Additional headers, such as conditional request validators
+     * @return Optional containing the HTTP response if successful, empty otherwise
+     */
+    private <T> Optional<HttpResponse<T>> send(String idSerie, LocalDate from, LocalDate to,
+                                               Supplier<HttpResponse.BodyHandler<T>> bodyHandlers,
+                                               Map<String, String> headers) {
         LOGGER.log(Level.INFO, () -> "Starting HTTP request to BMX API");
 
-        Optional<HttpRequest> requestOpt = createHttpRequest();
+        Optional<HttpRequest> requestOpt = createHttpRequest(buildApiUrl(idSerie, from, to), headers);
         if (requestOpt.isEmpty()) {
             return Optional.empty();
         }
 
-        HttpClient client = createHttpClient();
-
         try {
-            HttpResponse<String> response = client.send(requestOpt.get(), HttpResponse.BodyHandlers.ofString());
-            LOGGER.log(Level.INFO, () -> "HTTP request sent successfully");
-            return Optional.of(response);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Failed to send HTTP request", e);
-            return Optional.empty();
+            for (int attempt = 1; ; attempt++) {
+                int current = attempt;
+                if (!breaker.tryAcquire()) {
+                    LOGGER.log(Level.WARNING, () -> "Circuit breaker open, not requesting series " + idSerie);
+                    return Optional.empty();
+                }
+
+                Optional<String> retryAfter = Optional.empty();
+                boolean settled = false;
+                try {
+                    HttpResponse<T> response = exchange(idSerie, requestOpt.get(), bodyHandlers);
+                    settled = true;
+                    if (!retryPolicy.isRetryable(response.statusCode())) {
+                        breaker.recordSuccess();
+                        LOGGER.log(Level.INFO, () -> "HTTP request sent successfully");
+                        return Optional.of(response);
+                    }
+
+                    breaker.recordFailure();
+                    if (attempt == retryPolicy.maxAttempts()) {
+                        LOGGER.log(Level.SEVERE, () -> "Request of series " + idSerie + " failed after " + current
+                                + " attempts with status code " + response.statusCode());
+                        return Optional.of(response);
+                    }
+
+                    discard(response);
+                    retryAfter = response.headers().firstValue(RETRY_AFTER_HEADER);
+                    LOGGER.log(Level.WARNING, () -> "Attempt " + current + " of series " + idSerie
+                            + " failed with status code " + response.statusCode());
+                } catch (IOException e) {
+                    settled = true;
+                    breaker.recordFailure();
+                    if (attempt == retryPolicy.maxAttempts()) {
+                        LOGGER.log(Level.SEVERE, "Failed to send HTTP request", e);
+                        return Optional.empty();
+                    }
+
+                    LOGGER.log(Level.WARNING, e, () -> "Attempt " + current + " of series " + idSerie + " failed");
+                } finally {
+                    if (!settled) breaker.release();
+                }
+
+                Duration delay = retryPolicy.delay(attempt, retryAfter);
+                LOGGER.log(Level.INFO, () -> "Retrying series " + idSerie + " in " + delay.toMillis() + " ms");
+                TimeUnit.MILLISECONDS.sleep(delay.toMillis());
+            }
         } catch (InterruptedException e) {
             LOGGER.log(Level.SEVERE, "HTTP request interrupted", e);
             Thread.currentThread().interrupt(); // Restore interrupted status
             return Optional.empty();
         }
     }
+
+    /**
+     * Makes one attempt of a request. Waits for a token of the rate limiter before sending.
+     * If no answer arrived within the hedging percentile of recent latencies, a second request
+     * is sent, when the rate limiter has a token to spare, and the first successful one wins.
+     * The other is cancelled and its body discarded. The attempt fails once the request
+     * timeout has passed, whether or not the response headers had arrived.
+     * 
+     * @param idSerie The identifier of the series to request
+     * @param request The request to send
+     * @param bodyHandlers Creates the handler that consumes the response body of each request sent
+     * @return The HTTP response
+     * @throws IOException if the request failed or timed out
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private <T> HttpResponse<T> exchange(String idSerie, HttpRequest request,
+                                         Supplier<HttpResponse.BodyHandler<T>> bodyHandlers)
+            throws IOException, InterruptedException {
+        rateLimiter.acquire();
+
+        long start = System.nanoTime();
+        long deadline = start + requestTimeout.toNanos();
+        Optional<Duration> hedgeDelay = hedgePercentile == 0 ? Optional.empty() : latencies.percentile(hedgePercentile);
+
+        try (var timer = Metrics.time(Stage.HTTP, idSerie)) {
+            CompletableFuture<HttpResponse<T>> primary = client.sendAsync(request, bodyHandlers.get());
+            CompletableFuture<HttpResponse<T>> hedge = null;
+            HttpResponse<T> response = null;
+
+            try {
+                if (hedgeDelay.isPresent() && !completesWithin(primary, Math.min(hedgeDelay.get().toNanos(), deadline - start))
+                        && System.nanoTime() < deadline && rateLimiter.tryAcquire()) {
+                    LOGGER.log(Level.INFO, () -> "Request of series " + idSerie + " slower than p" + hedgePercentile
+                            + " of " + hedgeDelay.get().toMillis() + " ms, sending a hedged request");
+                    hedge = client.sendAsync(request, bodyHandlers.get());
+                }
+
+                response = (hedge == null ? primary : firstSuccessful(primary, hedge))
+                        .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new HttpTimeoutException("Request of series " + idSerie + " timed out after "
+                        + requestTimeout.toSeconds() + "s");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+                if (cause instanceof IOException io) throw io;
+                throw new IOException(cause);
+            } finally {
+                HttpResponse<T> winner = response;
+                for (var future : hedge == null ? List.of(primary) : List.of(primary, hedge)) {
+                    if (future.cancel(true)) continue;
+                    future.thenAccept(other -> {
+                        if (other != winner) discard(other);
+                    });
+                }
+            }
+
+            if (!retryPolicy.isRetryable(response.statusCode())) latencies.record(System.nanoTime() - start);
+            timer.addBytes(bodySize(response.body()));
+            return response;
+        }
+    }
+
+    /**
+     * Waits for a request to complete, successfully or not, for at most the given time.
+     *
+     * @return true if the request completed in time
+     */
+    private static boolean completesWithin(CompletableFuture<?> future, long nanos) throws InterruptedException {
+        try {
+            future.get(nanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Combines two requests into the first one that succeeds, failing only when both fail.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<T, Throwable> complete = (value, error) -> {
+            if (error == null) result.complete(value);
+            else if (failures.incrementAndGet() == 2) result.completeExceptionally(error);
+        };
+
+        first.whenComplete(complete);
+        second.whenComplete(complete);
+        return result;
+    }
+
+    /**
+     * Discards a response that will not be used, deleting its body if it was downloaded to a file.
+     */
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof Path path) deleteQuietly(path);
+    }
+
+    /**
+     * Measures a received body, a file downloaded by the body handler or a string.
+     * 
+     * @param body The response body
+     * @return The size of the body in bytes, 0 if unknown
+     */
+    private static long bodySize(Object body) {
+        try {
+            if (body instanceof Path path) return Files.exists(path) ? Files.size(path) : 0;
+            if (body instanceof String text) return text.length();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to measure response body", e);
+        }
+        return 0;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete file: " + path, e);
+        }
+    }
 }
@@ -0,0 +1,214 @@
+package dev.asjordi.request;
+
+import dev.asjordi.logger.LoggerConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of Banxico API responses keyed by series and date range.
+ * Each entry keeps the response body in its own file, next to a properties file with
+ * the ETag and Last-Modified validators, a SHA-256 hash of the body and whether the
+ * range only holds finalized dates. Finalized entries are served without any request,
+ * the rest are revalidated with a conditional request.
+ */
+public class ResponseCache {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    private static final String DEFAULT_DIRECTORY = "cache";
+    private static final String BODY_EXTENSION = ".json";
+    private static final String META_EXTENSION = ".properties";
+    private static final String TMP_EXTENSION = ".tmp";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final String SHA256_KEY = "sha256";
+    private static final String FINALIZED_KEY = "finalized";
+    private static final String FETCHED_AT_KEY = "fetchedAt";
+
+    private final Path directory;
+
+    /**
+     * A cached response.
+     *
+     * @param body The file holding the response body
+     * @param etag The ETag validator, or null if the server sent none
+     * @param lastModified The Last-Modified validator, or null if the server sent none
+     * @param sha256 The hex SHA-256 hash of the body
+     * @param finalized true if every date of the range is final and will not change
+     */
+    public record Entry(Path body, String etag, String lastModified, String sha256, boolean finalized) { }
+
+    /**
+     * Creates a cache in the default "cache" directory.
+     */
+    public ResponseCache() {
+        this(Path.of(DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * Creates a cache in the given directory.
+     *
+     * @param directory The directory holding the cached responses
+     */
+    public ResponseCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Builds the cache key of a request.
+     *
+     * @param idSerie The identifier of the series
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return The key, usable as a file name
+     */
+    public static String key(String idSerie, LocalDate from, LocalDate to) {
+        return idSerie + "_" + from + "_" + to;
+    }
+
+    /**
+     * Looks up a cached response.
+     *
+     * @param key The cache key
+     * @return Optional containing the entry, or empty if it is not cached or unreadable
+     */
+    public Optional<Entry> get(String key) {
+        Path meta = directory.resolve(key + META_EXTENSION);
+        Path body = directory.resolve(key + BODY_EXTENSION);
+        if (!Files.exists(meta) || !Files.exists(body)) return Optional.empty();
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(meta)) {
+            props.load(in);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read cache entry: " + meta, e);
+            return Optional.empty();
+        }
+
+        return Optional.of(new Entry(body, props.getProperty(ETAG_KEY), props.getProperty(LAST_MODIFIED_KEY),
+                props.getProperty(SHA256_KEY), Boolean.parseBoolean(props.getProperty(FINALIZED_KEY))));
+    }
+
+    /**
+     * Creates the temporary file a response body is downloaded to before it is stored.
+     *
+     * @param key The cache key
+     * @return The path of the temporary file
+     * @throws RuntimeException if the cache directory cannot be created
+     */
+    public Path tempFile(String key) {
+        return tempFile(key, 0);
+    }
+
+    /**
+     * Creates the temporary file one of several concurrent downloads of a response body is written to.
+     *
+     * @param key The cache key
+     * @param download The number of the download, 0 for the first one
+     * @return The path of the temporary file
+     * @throws RuntimeException if the cache directory cannot be created
+     */
+    public Path tempFile(String key, int download) {
+        try {
+            Files.createDirectories(directory);
+            String suffix = download == 0 ? "" : "." + download;
+            return directory.resolve(key + BODY_EXTENSION + suffix + TMP_EXTENSION);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to create cache directory: " + directory, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Stores a downloaded response body and its validators.
+     *
+     * @param key The cache key
+     * @param downloaded The temporary file holding the body
+     * @param etag The ETag validator, or null
+     * @param lastModified The Last-Modified validator, or null
+     * @param finalized true if every date of the range is final
+     * @return The stored entry
+     * @throws RuntimeException if the entry cannot be written
+     */
+    public Entry put(String key, Path downloaded, String etag, String lastModified, boolean finalized) {
+        Path body = directory.resolve(key + BODY_EXTENSION);
+        Path meta = directory.resolve(key + META_EXTENSION);
+
+        try {
+            String sha256 = hash(downloaded);
+            Files.move(downloaded, body, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Properties props = new Properties();
+            if (etag != null) props.setProperty(ETAG_KEY, etag);
+            if (lastModified != null) props.setProperty(LAST_MODIFIED_KEY, lastModified);
+            props.setProperty(SHA256_KEY, sha256);
+            props.setProperty(FINALIZED_KEY, Boolean.toString(finalized));
+            props.setProperty(FETCHED_AT_KEY, Instant.now().toString());
+
+            try (OutputStream out = Files.newOutputStream(meta)) {
+                props.store(out, key);
+            }
+
+            LOGGER.log(Level.INFO, () -> "Cached response: " + key);
+            return new Entry(body, etag, lastModified, sha256, finalized);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to cache response: " + key, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Removes entries that are not finalized and were fetched longer ago than the given age.
+     * Their date ranges end on a day that has passed, so they will never be requested again.
+     *
+     * @param maxAge The age after which non-finalized entries are removed
+     */
+    public void prune(Duration maxAge) {
+        if (!Files.isDirectory(directory)) return;
+
+        Instant limit = Instant.now().minus(maxAge);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.toString().endsWith(META_EXTENSION)).forEach(meta -> {
+                String name = meta.getFileName().toString();
+                String key = name.substring(0, name.length() - META_EXTENSION.length());
+                try {
+                    if (get(key).map(Entry::finalized).orElse(false)) return;
+                    if (Files.getLastModifiedTime(meta).toInstant().isAfter(limit)) return;
+                    Files.deleteIfExists(meta);
+                    Files.deleteIfExists(directory.resolve(key + BODY_EXTENSION));
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to prune cache entry: " + key, e);
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to prune cache directory: " + directory, e);
+        }
+    }
+
+    private static String hash(Path file) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
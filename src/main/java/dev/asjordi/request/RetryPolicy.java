@@ -0,0 +1,81 @@
+package dev.asjordi.request;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how long to wait before sending a failed request to the Banxico API again.
+ * Connection failures, timeouts, 429 and 5xx responses are retried, other responses
+ * are final. Delays grow exponentially from the base delay up to the maximum delay,
+ * and each one is drawn at random between zero and that bound ("full jitter"), so
+ * concurrent requests that failed together do not retry together.
+ * A Retry-After header sent with the response takes precedence, capped at the maximum delay.
+ *
+ * @param maxAttempts The number of times a request is sent, including the first one
+ * @param baseDelay The bound of the delay after the first failure
+ * @param maxDelay The largest bound of any delay
+ */
+public record RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int FIRST_SERVER_ERROR = 500;
+
+    /**
+     * Validates the policy.
+     *
+     * @throws IllegalArgumentException if there is not at least one attempt or a delay is negative
+     */
+    public RetryPolicy {
+        if (maxAttempts < 1) throw new IllegalArgumentException("At least one attempt is required: " + maxAttempts);
+        if (baseDelay.isNegative() || maxDelay.isNegative()) throw new IllegalArgumentException("Delays cannot be negative");
+    }
+
+    /**
+     * Checks whether a response status is worth another attempt.
+     *
+     * @param statusCode The HTTP status code of the response
+     * @return true for 429 Too Many Requests and every 5xx status
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == TOO_MANY_REQUESTS || statusCode >= FIRST_SERVER_ERROR;
+    }
+
+    /**
+     * Computes the wait before the next attempt.
+     *
+     * @param attempt The number of the attempt that failed, starting at 1
+     * @param retryAfter The value of the Retry-After header of the failed response, if any
+     * @return The time to wait
+     */
+    public Duration delay(int attempt, Optional<String> retryAfter) {
+        var requested = retryAfter.flatMap(RetryPolicy::parseSeconds);
+        if (requested.isPresent()) return requested.get().compareTo(maxDelay) > 0 ? maxDelay : requested.get();
+
+        long bound = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 1, 30));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    /**
+     * Computes the longest time a request can take with this policy, every attempt timing out.
+     *
+     * @param attemptTimeout The timeout of each attempt
+     * @return The bound of the total time
+     */
+    public Duration worstCase(Duration attemptTimeout) {
+        return attemptTimeout.multipliedBy(maxAttempts).plus(maxDelay.multipliedBy(maxAttempts - 1L));
+    }
+
+    /**
+     * Reads a Retry-After header given in seconds. HTTP dates are ignored.
+     */
+    private static Optional<Duration> parseSeconds(String value) {
+        try {
+            long seconds = Long.parseLong(value.strip());
+            return seconds < 0 ? Optional.empty() : Optional.of(Duration.ofSeconds(seconds));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package dev.asjordi.store;
+
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.request.DateWindow;
+import dev.asjordi.util.FileUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Progress file of a chunked historical backfill.
+ * The first lines record the date range and the series of the backfill, and one line
+ * is appended for every series window that has been merged into the store. The file is removed
+ * once the backfill completes, so its presence means a backfill can be resumed.
+ */
+public class BackfillCheckpoint {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+    private static final String RANGE_PREFIX = "range ";
+    private static final String SERIES_PREFIX = "series ";
+    private static final String DEFAULT_PATH = "backfill.checkpoint";
+
+    private final Path path;
+    private final Set<String> completed = new HashSet<>();
+    private List<String> series;
+
+    /**
+     * Creates a checkpoint backed by the default "backfill.checkpoint" file.
+     */
+    public BackfillCheckpoint() {
+        this(Path.of(DEFAULT_PATH));
+    }
+
+    /**
+     * Creates a checkpoint backed by the given file.
+     *
+     * @param path The checkpoint file
+     */
+    public BackfillCheckpoint(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @return true if a backfill was started and has not completed yet
+     */
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    /**
+     * Reads the date range, series and completed windows of an interrupted backfill.
+     *
+     * @return Optional containing the range of the backfill, or empty if there is none
+     */
+    public synchronized Optional<DateWindow> load() {
+        if (!exists()) return Optional.empty();
+
+        List<String> lines = FileUtils.readLines(path.toString());
+        if (lines.isEmpty() || !lines.get(0).startsWith(RANGE_PREFIX)) {
+            LOGGER.log(Level.WARNING, () -> "Ignoring malformed backfill checkpoint: " + path);
+            return Optional.empty();
+        }
+
+        String[] range = lines.get(0).substring(RANGE_PREFIX.length()).split(" ");
+        int first = 1;
+        series = null;
+        if (lines.size() > 1 && lines.get(1).startsWith(SERIES_PREFIX)) {
+            series = List.of(lines.get(1).substring(SERIES_PREFIX.length()).split(" "));
+            first = 2;
+        }
+        completed.clear();
+        completed.addAll(lines.subList(first, lines.size()));
+        LOGGER.log(Level.INFO, () -> "Loaded backfill checkpoint with " + completed.size() + " completed windows");
+
+        return Optional.of(new DateWindow(LocalDate.parse(range[0]), LocalDate.parse(range[1])));
+    }
+
+    /**
+     * Starts a new checkpoint for the given range and series, discarding any previous progress.
+     *
+     * @param from The first date of the backfill
+     * @param to The last date of the backfill
+     * @param series The identifiers of the series being backfilled
+     */
+    public synchronized void start(LocalDate from, LocalDate to, List<String> series) {
+        completed.clear();
+        this.series = List.copyOf(series);
+        FileUtils.writeFile(path.toString(), RANGE_PREFIX + from + " " + to + "\n"
+                + SERIES_PREFIX + String.join(" ", series) + "\n");
+    }
+
+    /**
+     * @return Optional containing the series of the started or loaded backfill, or empty
+     *         if it has not been started or loaded, or its file does not list them
+     */
+    public synchronized Optional<List<String>> getSeries() {
+        return Optional.ofNullable(series);
+    }
+
+    /**
+     * @param key The identifier of a series window
+     * @return true if the window was merged into the store by a previous or the current run
+     */
+    public synchronized boolean isDone(String key) {
+        return completed.contains(key);
+    }
+
+    /**
+     * Records that a series window was merged into the store.
+     *
+     * @param key The identifier of the series window
+     * @throws RuntimeException if the checkpoint cannot be written
+     */
+    public synchronized void markDone(String key) {
+        try {
+            Files.writeString(path, key + "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            completed.add(key);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to update backfill checkpoint: " + path, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Removes the checkpoint once the backfill has completed.
+     */
+    public synchronized void clear() {
+        try {
+            Files.deleteIfExists(path);
+            completed.clear();
+            series = null;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete backfill checkpoint: " + path, e);
+        }
+    }
+
+}
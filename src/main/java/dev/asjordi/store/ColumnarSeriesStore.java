@@ -0,0 +1,358 @@
+package dev.asjordi.store;
+
+import dev.asjordi.logger.LoggerConfig;
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FileUtils;
+import dev.asjordi.util.FixedPoint;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binary columnar persistence for BMX series.
+ * Each series is stored in its own file with a small header followed by an int
+ * column of epoch days and a long column of values scaled by {@link FixedPoint#FACTOR}.
+ * Files are opened with {@link FileChannel#map}, so reading the store does not parse
+ * or allocate per observation. A manifest file keeps the order of the series.
+ * New observations are appended to a per-series {@link SeriesLog} and folded into
+ * the base file by {@link #compact(String)}, so an update costs O(new points).
+ */
+public class ColumnarSeriesStore {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    private static final int MAGIC = 0x424D5853; // "BMXS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    private static final String FILE_EXTENSION = ".bin";
+    private static final String LOG_EXTENSION = ".log";
+    private static final int COMPACTION_THRESHOLD = 512;
+    private static final String MANIFEST_FILE = "manifest.txt";
+    private static final String DEFAULT_DIRECTORY = "store";
+
+    private final Path directory;
+
+    /**
+     * Creates a store in the default "store" directory.
+     */
+    public ColumnarSeriesStore() {
+        this(Path.of(DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * Creates a store in the given directory.
+     *
+     * @param directory The directory holding the series files
+     */
+    public ColumnarSeriesStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Checks whether the store has been written at least once.
+     *
+     * @return true if the manifest file exists
+     */
+    public boolean exists() {
+        return Files.exists(directory.resolve(MANIFEST_FILE));
+    }
+
+    /**
+     * Lists the identifiers of the stored series in manifest order.
+     *
+     * @return The series identifiers, or an empty list if the store does not exist
+     */
+    public List<String> listSeries() {
+        if (!exists()) return List.of();
+
+        return FileUtils.readLines(directory.resolve(MANIFEST_FILE).toString())
+                .stream()
+                .map(String::strip)
+                .filter(line -> !line.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Writes the manifest with the identifiers of the stored series.
+     *
+     * @param ids The series identifiers in the order they should be read back
+     */
+    public void writeManifest(List<String> ids) {
+        createDirectory();
+        FileUtils.writeFile(directory.resolve(MANIFEST_FILE).toString(), String.join("\n", ids) + "\n");
+    }
+
+    /**
+     * Memory-maps the file of a series.
+     *
+     * @param idSerie The identifier of the series
+     * @return Optional containing a view over the file, or empty if the series is not stored
+     * @throws RuntimeException if the file exists but cannot be read or is corrupt
+     */
+    public Optional<SeriesColumns> open(String idSerie) {
+        Path path = seriesPath(idSerie);
+        if (!Files.exists(path)) return Optional.empty();
+
+        LOGGER.log(Level.INFO, () -> "Mapping series file: " + path);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Unsupported series file: " + path);
+            }
+
+            int size = buffer.getInt(8);
+            int titleLength = buffer.getInt(12);
+            byte[] title = new byte[titleLength];
+            buffer.get(HEADER_BYTES, title);
+
+            int daysOffset = align(HEADER_BYTES + titleLength);
+            int valuesOffset = align(daysOffset + Integer.BYTES * size);
+
+            return Optional.of(new SeriesColumns(idSerie, new String(title, StandardCharsets.UTF_8),
+                    buffer, size, daysOffset, valuesOffset));
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.log(Level.SEVERE, "Failed to map series file: " + path, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes a series from the primitive model.
+     *
+     * @param series The series to persist
+     * @return The number of bytes written
+     */
+    public long write(PrimitiveSeries series) {
+        return write(series.getIdSerie(), series.getTitulo(), series.epochDays(), series.values(), series.size());
+    }
+
+    /**
+     * Writes a series from its primitive columns.
+     * The file is written next to the target and atomically moved into place,
+     * so readers never observe a partially written series. The written snapshot
+     * supersedes the log of the series, which is discarded.
+     *
+     * @param idSerie The identifier of the series
+     * @param titulo The descriptive title of the series
+     * @param epochDays The dates as days since 1970-01-01, in ascending order
+     * @param values The values scaled by {@link FixedPoint#FACTOR}
+     * @param size The number of observations to write
+     * @return The number of bytes written
+     * @throws RuntimeException if the file cannot be written
+     */
+    public long write(String idSerie, String titulo, int[] epochDays, long[] values, int size) {
+        createDirectory();
+        Path path = seriesPath(idSerie);
+        Path tmp = directory.resolve(idSerie + FILE_EXTENSION + ".tmp");
+
+        LOGGER.log(Level.INFO, () -> "Writing series file: " + path);
+
+        byte[] title = titulo == null ? new byte[0] : titulo.getBytes(StandardCharsets.UTF_8);
+        int daysOffset = align(HEADER_BYTES + title.length);
+        int valuesOffset = align(daysOffset + Integer.BYTES * size);
+        int length = valuesOffset + Long.BYTES * size;
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putInt(8, size)
+                    .putInt(12, title.length)
+                    .put(HEADER_BYTES, title);
+            buffer.slice(daysOffset, Integer.BYTES * size).asIntBuffer().put(epochDays, 0, size);
+            buffer.slice(valuesOffset, Long.BYTES * size).asLongBuffer().put(values, 0, size);
+            buffer.force();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to write series file: " + path, e);
+            throw new RuntimeException(e);
+        }
+
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log(idSerie).clear();
+            LOGGER.log(Level.INFO, () -> "Series file written successfully: " + path);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to move series file into place: " + path, e);
+            throw new RuntimeException(e);
+        }
+
+        return length;
+    }
+
+    /**
+     * Reads a series, replaying any observations in its log on top of the base file.
+     *
+     * @param idSerie The identifier of the series
+     * @return Optional containing the series, or empty if it is not stored
+     */
+    public Optional<PrimitiveSeries> read(String idSerie) {
+        Optional<SeriesColumns> base = open(idSerie);
+        if (base.isEmpty()) return Optional.empty();
+
+        LogTail tail = log(idSerie).replay();
+        if (tail.isEmpty()) return Optional.of(base.get().toPrimitive());
+
+        SeriesColumns columns = base.get();
+        int[] epochDays = new int[columns.size()];
+        long[] values = new long[columns.size()];
+        columns.copyEpochDays(epochDays);
+        columns.copyValues(values);
+
+        Merged merged = merge(epochDays, values, columns.size(), tail);
+        return Optional.of(new PrimitiveSeries(idSerie, columns.getTitulo(),
+                merged.epochDays(), merged.values(), merged.size()));
+    }
+
+    /**
+     * Appends new observations of a stored series to its log.
+     * The log is compacted into the base file once it grows past a fixed number of records.
+     *
+     * @param series The new or changed observations of the series
+     * @return The number of bytes written, including a compaction
+     */
+    public long append(PrimitiveSeries series) {
+        SeriesLog log = log(series.getIdSerie());
+        log.append(series.epochDays(), series.values(), series.size());
+        long bytes = (long) series.size() * SeriesLog.RECORD_BYTES;
+
+        if (log.recordCount() >= COMPACTION_THRESHOLD) bytes += compact(series.getIdSerie());
+        return bytes;
+    }
+
+    /**
+     * Folds the log of a series into its base file and removes the log.
+     * Observations in the log replace base observations with the same date.
+     *
+     * @param idSerie The identifier of the series
+     * @return The number of bytes written
+     */
+    public long compact(String idSerie) {
+        SeriesLog log = log(idSerie);
+        LogTail tail = log.replay();
+        if (tail.isEmpty()) return 0;
+
+        LOGGER.log(Level.INFO, () -> "Compacting log of series: " + idSerie);
+
+        Optional<SeriesColumns> base = open(idSerie);
+        int baseSize = base.map(SeriesColumns::size).orElse(0);
+        int[] epochDays = new int[baseSize];
+        long[] values = new long[baseSize];
+        base.ifPresent(columns -> {
+            columns.copyEpochDays(epochDays);
+            columns.copyValues(values);
+        });
+
+        Merged merged = merge(epochDays, values, baseSize, tail);
+        long bytes = write(idSerie, base.map(SeriesColumns::getTitulo).orElse(null),
+                merged.epochDays(), merged.values(), merged.size());
+        LOGGER.log(Level.INFO, () -> "Log compacted for series: " + idSerie);
+        return bytes;
+    }
+
+    /**
+     * Compacts the logs of every series in the manifest.
+     */
+    public void compactAll() {
+        listSeries().forEach(this::compact);
+    }
+
+    /**
+     * Checks whether a series has a base file in the store.
+     *
+     * @param idSerie The identifier of the series
+     * @return true if the series is stored
+     */
+    public boolean contains(String idSerie) {
+        return Files.exists(seriesPath(idSerie));
+    }
+
+    private SeriesLog log(String idSerie) {
+        return new SeriesLog(directory.resolve(idSerie + LOG_EXTENSION));
+    }
+
+    /**
+     * Merges sorted base columns with log records in append order.
+     * Later log records win over earlier ones and over the base for the same date.
+     */
+    private static Merged merge(int[] baseDays, long[] baseValues, int baseSize, LogTail tail) {
+        Integer[] order = new Integer[tail.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(tail.epochDays()[a], tail.epochDays()[b]));
+
+        int[] epochDays = new int[baseSize + tail.size()];
+        long[] values = new long[baseSize + tail.size()];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < baseSize || j < order.length) {
+            int day;
+            long value;
+
+            if (j < order.length) {
+                int k = order[j];
+                // The sort is stable, so the last record of a date is the last one appended
+                while (j + 1 < order.length && tail.epochDays()[order[j + 1]] == tail.epochDays()[k]) {
+                    k = order[++j];
+                }
+
+                int logDay = tail.epochDays()[k];
+                if (i < baseSize && baseDays[i] < logDay) {
+                    day = baseDays[i];
+                    value = baseValues[i++];
+                } else {
+                    if (i < baseSize && baseDays[i] == logDay) i++;
+                    day = logDay;
+                    value = tail.values()[k];
+                    j++;
+                }
+            } else {
+                day = baseDays[i];
+                value = baseValues[i++];
+            }
+
+            epochDays[size] = day;
+            values[size] = value;
+            size++;
+        }
+
+        return new Merged(epochDays, values, size);
+    }
+
+    private record Merged(int[] epochDays, long[] values, int size) { }
+
+    private Path seriesPath(String idSerie) {
+        return directory.resolve(idSerie + FILE_EXTENSION);
+    }
+
+    private void createDirectory() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to create store directory: " + directory, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int align(int offset) {
+        return (offset + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+}
@@ -0,0 +1,19 @@
+package dev.asjordi.store;
+
+/**
+ * Observations replayed from a series log, in the order they were appended.
+ *
+ * @param epochDays The dates as days since 1970-01-01
+ * @param values The values scaled by {@link dev.asjordi.util.FixedPoint#FACTOR}
+ * @param size The number of valid observations in the arrays
+ */
+public record LogTail(int[] epochDays, long[] values, int size) {
+
+    /**
+     * @return true if the log holds no observations
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+}
@@ -0,0 +1,102 @@
+package dev.asjordi.store;
+
+import dev.asjordi.model.PrimitiveSeries;
+import dev.asjordi.util.FixedPoint;
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only view over a memory-mapped series file written by {@link ColumnarSeriesStore}.
+ * Values are read straight from the mapped buffer, so opening a series does not
+ * allocate one object per observation.
+ */
+public class SeriesColumns {
+
+    private final String idSerie;
+    private final String titulo;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int daysOffset;
+    private final int valuesOffset;
+
+    /**
+     * Creates a view over the given buffer.
+     *
+     * @param idSerie The identifier of the series
+     * @param titulo The descriptive title of the series
+     * @param buffer The mapped file contents
+     * @param size The number of observations
+     * @param daysOffset Byte offset of the epoch-day column
+     * @param valuesOffset Byte offset of the value column
+     */
+    SeriesColumns(String idSerie, String titulo, ByteBuffer buffer, int size, int daysOffset, int valuesOffset) {
+        this.idSerie = idSerie;
+        this.titulo = titulo;
+        this.buffer = buffer;
+        this.size = size;
+        this.daysOffset = daysOffset;
+        this.valuesOffset = valuesOffset;
+    }
+
+    public String getIdSerie() {
+        return idSerie;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    /**
+     * @return The number of observations in the series
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The position of the observation
+     * @return The date of the observation as days since 1970-01-01
+     */
+    public int epochDay(int index) {
+        return buffer.getInt(daysOffset + Integer.BYTES * index);
+    }
+
+    /**
+     * @param index The position of the observation
+     * @return The value of the observation scaled by {@link FixedPoint#FACTOR}
+     */
+    public long value(int index) {
+        return buffer.getLong(valuesOffset + Long.BYTES * index);
+    }
+
+    /**
+     * Copies the epoch-day column into the given array.
+     *
+     * @param target The array to fill, must hold at least {@link #size()} elements
+     */
+    public void copyEpochDays(int[] target) {
+        buffer.slice(daysOffset, Integer.BYTES * size).order(buffer.order()).asIntBuffer().get(target, 0, size);
+    }
+
+    /**
+     * Copies the value column into the given array.
+     *
+     * @param target The array to fill, must hold at least {@link #size()} elements
+     */
+    public void copyValues(long[] target) {
+        buffer.slice(valuesOffset, Long.BYTES * size).order(buffer.order()).asLongBuffer().get(target, 0, size);
+    }
+
+    /**
+     * Copies the view into the compact in-memory model.
+     *
+     * @return The primitive series
+     */
+    public PrimitiveSeries toPrimitive() {
+        int[] epochDays = new int[size];
+        long[] values = new long[size];
+        copyEpochDays(epochDays);
+        copyValues(values);
+        return new PrimitiveSeries(idSerie, titulo, epochDays, values, size);
+    }
+
+}
@@ -0,0 +1,173 @@
+package dev.asjordi.store;
+
+import dev.asjordi.logger.LoggerConfig;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of new observations for a single series.
+ * Each record holds an int epoch day, a long scaled value and a CRC32 of both,
+ * so a record torn by a crash is detected on replay and cut off from the log.
+ * A batch of records is written with a single positioned write.
+ */
+public class SeriesLog {
+
+    private static final Logger LOGGER = LoggerConfig.getLogger();
+
+    /**
+     * Size in bytes of a record: epoch day, value and checksum.
+     */
+    public static final int RECORD_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final int PAYLOAD_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+
+    /**
+     * Creates a log backed by the given file.
+     *
+     * @param path The log file, created on the first append
+     */
+    public SeriesLog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Appends a batch of observations to the log.
+     * Any torn record left by a previous crash is truncated before writing.
+     *
+     * @param epochDays The dates as days since 1970-01-01
+     * @param values The values scaled by {@link dev.asjordi.util.FixedPoint#FACTOR}
+     * @param size The number of observations to append
+     * @throws RuntimeException if the log cannot be written
+     */
+    public void append(int[] epochDays, long[] values, int size) {
+        if (size == 0) return;
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * size);
+        CRC32 crc = new CRC32();
+
+        for (int i = 0; i < size; i++) {
+            int start = buffer.position();
+            buffer.putInt(epochDays[i]).putLong(values[i]);
+            crc.reset();
+            crc.update(buffer.array(), start, PAYLOAD_BYTES);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = validLength(channel);
+            if (position < channel.size()) channel.truncate(position);
+
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+            LOGGER.log(Level.INFO, () -> "Appended " + size + " records to log: " + path);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to append to log: " + path, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads every valid record of the log.
+     * Reading stops at the first record whose checksum does not match, and the
+     * invalid tail is truncated so later appends start from a clean record boundary.
+     *
+     * @return The replayed observations, empty if the log does not exist
+     * @throws RuntimeException if the log cannot be read
+     */
+    public LogTail replay() {
+        if (!Files.exists(path)) return new LogTail(new int[0], new long[0], 0);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) { }
+            buffer.flip();
+
+            int capacity = buffer.remaining() / RECORD_BYTES;
+            int[] epochDays = new int[capacity];
+            long[] values = new long[capacity];
+            int size = scan(buffer, epochDays, values);
+
+            long valid = (long) size * RECORD_BYTES;
+            if (valid < channel.size()) {
+                LOGGER.log(Level.WARNING, () -> "Truncating torn tail of log: " + path);
+                channel.truncate(valid);
+            }
+
+            LOGGER.log(Level.INFO, () -> "Replayed " + size + " records from log: " + path);
+            return new LogTail(epochDays, values, size);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to replay log: " + path, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return The number of complete records in the log file, without validating them
+     */
+    public int recordCount() {
+        try {
+            return Files.exists(path) ? (int) (Files.size(path) / RECORD_BYTES) : 0;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read size of log: " + path, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Removes the log once its records have been folded into the base snapshot.
+     *
+     * @throws RuntimeException if the log cannot be deleted
+     */
+    public void clear() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to delete log: " + path, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long validLength(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) { }
+        buffer.flip();
+        int capacity = buffer.remaining() / RECORD_BYTES;
+        return (long) scan(buffer, new int[capacity], new long[capacity]) * RECORD_BYTES;
+    }
+
+    private static int scan(ByteBuffer buffer, int[] epochDays, long[] values) {
+        CRC32 crc = new CRC32();
+        int size = 0;
+
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int start = buffer.position();
+            int epochDay = buffer.getInt();
+            long value = buffer.getLong();
+            int checksum = buffer.getInt();
+
+            crc.reset();
+            crc.update(buffer.array(), start, PAYLOAD_BYTES);
+            if ((int) crc.getValue() != checksum) break;
+
+            epochDays[size] = epochDay;
+            values[size] = value;
+            size++;
+        }
+
+        return size;
+    }
+
+}
@@ -0,0 +1,163 @@
+package dev.asjordi.util;
+
+/**
+ * Utility class for the scaled-decimal representation of exchange rate values.
+ * Banxico publishes rates as decimal strings with four fractional digits, so every
+ * value is stored as a long holding the rate multiplied by 10,000. This keeps the
+ * representation exact and avoids re-parsing strings or boxing doubles.
+ * All methods are static and the class cannot be instantiated.
+ */
+public final class FixedPoint {
+
+    /**
+     * Number of fractional digits kept by the representation.
+     */
+    public static final int SCALE = 4;
+
+    /**
+     * Multiplier between a decimal rate and its scaled long value.
+     */
+    public static final long FACTOR = 10_000L;
+
+    /**
+     * Sentinel used for observations the API reports as not available.
+     */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    /**
+     * Text the Banxico API uses for observations that are not available.
+     */
+    public static final String MISSING_TEXT = "N/E";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private FixedPoint() { }
+
+    /**
+     * Parses a decimal string such as "20.1234" into its scaled long value.
+     * Thousands separators are ignored and missing fractional digits are padded with zeros.
+     *
+     * @param text The decimal text to parse
+     * @return The scaled value, or {@link #MISSING} if the text is not a number
+     * @throws IllegalArgumentException if the text has more than four significant fractional digits
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) return MISSING;
+
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long integerPart = 0;
+        boolean digits = false;
+
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.') break;
+            if (c == ',') continue;
+            if (c < '0' || c > '9') return MISSING;
+            integerPart = integerPart * 10 + (c - '0');
+            digits = true;
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+
+        if (i < length) {
+            for (i++; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') return MISSING;
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (c != '0') {
+                    throw new IllegalArgumentException("Value has more than " + SCALE + " decimals: " + text);
+                }
+                digits = true;
+            }
+        }
+
+        if (!digits) return MISSING;
+
+        for (; fractionDigits < SCALE; fractionDigits++) fraction *= 10;
+
+        long value = integerPart * FACTOR + fraction;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Formats a scaled value back into the decimal string used by the Banxico API.
+     *
+     * @param value The scaled value
+     * @return The decimal string with four fractional digits, or {@link #MISSING_TEXT} for missing values
+     */
+    public static String format(long value) {
+        if (value == MISSING) return MISSING_TEXT;
+
+        StringBuilder sb = new StringBuilder(12);
+        if (value < 0) {
+            sb.append('-');
+            value = -value;
+        }
+
+        long fraction = value % FACTOR;
+        sb.append(value / FACTOR).append('.');
+        for (long divisor = FACTOR / 10; divisor > 0; divisor /= 10) {
+            sb.append((char) ('0' + (fraction / divisor) % 10));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Multiplies two scaled values, rounding half to even like the conversions of the API.
+     *
+     * @param a The first scaled value
+     * @param b The second scaled value
+     * @return The scaled product
+     * @throws ArithmeticException if the product overflows a long
+     */
+    public static long multiply(long a, long b) {
+        long low = a * b;
+        if (Math.multiplyHigh(a, b) != low >> 63) throw new ArithmeticException("Scaled product overflows: " + a + " * " + b);
+        return divideRounded(low, FACTOR);
+    }
+
+    /**
+     * Divides two scaled values, rounding half to even like the conversions of the API.
+     *
+     * @param dividend The scaled dividend
+     * @param divisor The scaled divisor, greater than zero
+     * @return The scaled quotient
+     * @throws ArithmeticException if the scaled dividend overflows a long
+     */
+    public static long divide(long dividend, long divisor) {
+        return divideRounded(Math.multiplyExact(dividend, FACTOR), divisor);
+    }
+
+    private static long divideRounded(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long twiceRemainder = Math.abs(dividend % divisor) * 2;
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Converts a scaled value to a double.
+     *
+     * @param value The scaled value
+     * @return The value as a double, or {@link Double#NaN} for missing values
+     */
+    public static double toDouble(long value) {
+        return value == MISSING ? Double.NaN : (double) value / FACTOR;
+    }
+
+}
@@ -0,0 +1,53 @@
+package dev.asjordi.util;
+
+/**
+ * Utility class to write text as JSON string content.
+ * Quotes, backslashes and control characters are escaped as RFC 8259 requires,
+ * so any text, including messages built from user input, yields valid JSON.
+ * All methods are static and the class cannot be instantiated.
+ */
+public final class JsonText {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private JsonText() { }
+
+    /**
+     * Appends text escaped as the content of a JSON string, without the surrounding quotes.
+     *
+     * @param value The text to escape, null appends nothing
+     * @param json The builder to append to
+     */
+    public static void escape(String value, StringBuilder json) {
+        if (value == null) return;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Escapes text as the content of a JSON string, without the surrounding quotes.
+     *
+     * @param value The text to escape, null yields an empty string
+     * @return The escaped text
+     */
+    public static String escape(String value) {
+        StringBuilder json = new StringBuilder(value == null ? 0 : value.length() + 8);
+        escape(value, json);
+        return json.toString();
+    }
+
+}
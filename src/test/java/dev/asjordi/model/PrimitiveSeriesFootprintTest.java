@@ -0,0 +1,60 @@
+package dev.asjordi.model;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Compares the heap footprint of a history as a Jackson {@link Series} of {@link Dato}
+ * objects and as a {@link PrimitiveSeries}, measured with JOL over the whole object graph.
+ * The history is a generated random walk over business days of the size of the stored one,
+ * so the test does not depend on the data.json updated every day.
+ */
+class PrimitiveSeriesFootprintTest {
+
+    private static final int HISTORY_POINTS = 8741;
+    private static final LocalDate START = LocalDate.of(1991, 11, 12);
+    private static final long SEED = 20_240_101L;
+
+    /**
+     * The primitive columns of an 8,741-point history take less than a fifth of the heap of the Dato objects.
+     */
+    @Test
+    void primitiveSeriesIsAFractionOfDatoObjects() {
+        PrimitiveSeries primitive = history();
+        Series series = primitive.toSeries();
+
+        long objects = GraphLayout.parseInstance(series).totalSize();
+        long columns = GraphLayout.parseInstance(primitive).totalSize();
+
+        assertTrue(columns * 5 < objects, "PrimitiveSeries takes " + columns + " bytes, Series/Dato " + objects);
+    }
+
+    /**
+     * Generates a deterministic random walk of rates over business days.
+     */
+    private static PrimitiveSeries history() {
+        int[] days = new int[HISTORY_POINTS];
+        long[] values = new long[HISTORY_POINTS];
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDate fecha = START;
+        long value = 30_000;
+
+        for (int i = 0; i < HISTORY_POINTS; i++) {
+            while (fecha.getDayOfWeek() == DayOfWeek.SATURDAY || fecha.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                fecha = fecha.plusDays(1);
+            }
+            value = Math.max(10_000, value + random.nextInt(-250, 251));
+            days[i] = (int) fecha.toEpochDay();
+            values[i] = value;
+            fecha = fecha.plusDays(1);
+        }
+
+        return new PrimitiveSeries("SF43718", "Tipo de cambio Pesos por dólar E.U.A.", days, values, HISTORY_POINTS);
+    }
+
+}
@@ -0,0 +1,223 @@
+package dev.asjordi.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.asjordi.logger.LoggerConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs {@link RequestManager} against a local stand-in for the SIE API that injects faults,
+ * checking that retries, hedged requests and the circuit breaker keep the tail latency bounded.
+ * The fault a request meets is named by its series identifier: "SLOW" answers after the request
+ * timeout, "E503" with a server error, "E429" with a rate limit and a Retry-After longer than the
+ * longest retry delay, and "DOWN" always with a server error. The first three only fail the first
+ * request of each path, so the retry or the hedged request succeeds.
+ * The assertions measure wall-clock time, so the class is tagged "timing" and only runs
+ * with the timing profile, not in the default build.
+ */
+@Tag("timing")
+class FaultInjectionTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration SLOW = Duration.ofSeconds(3);
+    private static final RetryPolicy RETRY_POLICY = new RetryPolicy(3, Duration.ofMillis(20), Duration.ofMillis(200));
+    private static final String[] FAULTS = {"OK", "SLOW", "E503", "E429"};
+    private static final byte[] BODY = "{\"bmx\":{\"series\":[]}}".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private final ConcurrentMap<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final LocalDate from = LocalDate.of(2024, 1, 1);
+    private final LocalDate to = LocalDate.of(2024, 1, 31);
+    private Level logLevel;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        logLevel = LoggerConfig.getLogger().getLevel();
+        LoggerConfig.getLogger().setLevel(Level.OFF);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+
+        System.setProperty("BMX_API_URL", "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        System.setProperty("BMX_REQUEST_TIMEOUT_SECONDS", String.valueOf(TIMEOUT.toSeconds()));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        System.clearProperty("BMX_API_URL");
+        System.clearProperty("BMX_REQUEST_TIMEOUT_SECONDS");
+        LoggerConfig.getLogger().setLevel(logLevel);
+    }
+
+    /**
+     * Concurrent requests meeting timeouts, 5xx and 429 all succeed, none taking longer than
+     * the worst case of the retry policy.
+     */
+    @Test
+    void faultsAreRetriedWithinTheWorstCase() throws Exception {
+        RequestManager requestManager = manager(new CircuitBreaker(Integer.MAX_VALUE, Duration.ofMinutes(1)));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) ids.add(FAULTS[i % FAULTS.length] + "-" + i);
+
+        long[] latencies = fetchAll(requestManager, ids, 200);
+
+        Duration bound = RETRY_POLICY.worstCase(TIMEOUT);
+        long slowest = latencies[latencies.length - 1];
+        assertTrue(slowest <= bound.toNanos(), "Slowest request took " + millis(slowest) + " ms");
+    }
+
+    /**
+     * Once enough latencies are known, a request slower than their p95 is hedged,
+     * so requests whose first answer is slow finish well before the request timeout.
+     */
+    @Test
+    void slowRequestsAreHedgedBeforeTheTimeout() throws Exception {
+        RequestManager requestManager = manager(new CircuitBreaker(Integer.MAX_VALUE, Duration.ofMinutes(1)));
+        List<String> warmUp = new ArrayList<>();
+        List<String> slow = new ArrayList<>();
+        for (int i = 0; i < 32; i++) warmUp.add("OK-" + i);
+        for (int i = 0; i < 20; i++) slow.add("SLOW-" + i);
+
+        for (String id : warmUp) fetchAll(requestManager, List.of(id), 200);
+        long[] latencies = fetchAll(requestManager, slow, 200);
+
+        long p99 = percentile(latencies, 99);
+        assertTrue(p99 < TIMEOUT.toNanos(), "p99 of slow requests is " + millis(p99) + " ms");
+    }
+
+    /**
+     * While the API is down the breaker opens, and later requests fail at once without reaching it.
+     */
+    @Test
+    void breakerFailsFastWhileTheApiIsDown() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(4, Duration.ofMinutes(1));
+        RequestManager requestManager = manager(breaker);
+
+        assertEquals(503, requestManager.makeStreamingRequest("DOWN-0", from, to).orElseThrow().statusCode());
+        assertTrue(requestManager.makeStreamingRequest("DOWN-1", from, to).isEmpty());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        int sent = requests.get();
+        long start = System.nanoTime();
+        Optional<HttpResponse<InputStream>> response = requestManager.makeStreamingRequest("DOWN-2", from, to);
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(response.isEmpty());
+        assertEquals(sent, requests.get());
+        assertTrue(elapsed < TIMEOUT.toNanos(), "Rejected request took " + millis(elapsed) + " ms");
+    }
+
+    private RequestManager manager(CircuitBreaker breaker) {
+        return new RequestManager(List.of(), new TokenBucket(1000, Duration.ofSeconds(1)),
+                new ResponseCache(cacheDir), RETRY_POLICY, breaker);
+    }
+
+    /**
+     * Requests every series concurrently, checking each gets the expected status.
+     *
+     * @return The latency of every request in nanoseconds, sorted
+     */
+    private long[] fetchAll(RequestManager requestManager, List<String> ids, int expectedStatus) throws Exception {
+        List<Future<Long>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String id : ids) {
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<InputStream> response = requestManager.makeStreamingRequest(id, from, to).orElseThrow();
+                    long elapsed = System.nanoTime() - start;
+                    assertEquals(expectedStatus, response.statusCode(), id);
+                    if (response.body() != null) response.body().close();
+                    return elapsed;
+                }));
+            }
+        }
+
+        long[] latencies = new long[futures.size()];
+        for (int i = 0; i < latencies.length; i++) latencies[i] = futures.get(i).get();
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.clamp(rank, 0, sorted.length - 1)];
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Answers with the fault named by the series of the request path, /{series}/datos/{from}/{to}.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        String fault = path.substring(1, path.indexOf('-'));
+        boolean first = hits.computeIfAbsent(path, key -> new AtomicInteger()).getAndIncrement() == 0;
+
+        try (exchange) {
+            if ("DOWN".equals(fault) || (first && "E503".equals(fault))) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            if (first && "E429".equals(fault)) {
+                exchange.getResponseHeaders().set("Retry-After", "30");
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+            if (first && "SLOW".equals(fault)) {
+                try {
+                    Thread.sleep(SLOW);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        } catch (IOException e) {
+            // The client gave up on a slow answer and closed the connection
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package dev.asjordi.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.asjordi.logger.LoggerConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs {@link RequestManager#makeStreamingRequest(String, LocalDate, LocalDate)} against a local
+ * stand-in for the SIE API that tags its body with an ETag and answers a matching
+ * If-None-Match with 304, checking what each request costs once the response is cached.
+ */
+class ResponseCacheRevalidationTest {
+
+    private static final String SERIES = "SF43718";
+    private static final String ETAG = "\"v1\"";
+    private static final String BODY = "{\"bmx\":{\"series\":[{\"idSerie\":\"SF43718\",\"titulo\":\"FIX\","
+            + "\"datos\":[{\"fecha\":\"02/01/2024\",\"dato\":\"16.9220\"}]}]}}";
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private final Queue<String> validators = new ConcurrentLinkedQueue<>();
+    private RequestManager requestManager;
+    private ResponseCache cache;
+    private Level logLevel;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        logLevel = LoggerConfig.getLogger().getLevel();
+        LoggerConfig.getLogger().setLevel(Level.OFF);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        System.setProperty("BMX_API_URL", "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        cache = new ResponseCache(cacheDir);
+        requestManager = new RequestManager(List.of(SERIES), new TokenBucket(100, Duration.ofSeconds(1)), cache);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        System.clearProperty("BMX_API_URL");
+        LoggerConfig.getLogger().setLevel(logLevel);
+    }
+
+    /**
+     * A range ending today is downloaded once with its ETag, then revalidated: the 304 serves the cached body.
+     */
+    @Test
+    void openRangeIsRevalidatedWithItsEtag() throws IOException {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(7);
+
+        assertEquals(BODY, fetch(from, today));
+        assertEquals(ETAG, cache.get(ResponseCache.key(SERIES, from, today)).orElseThrow().etag());
+
+        assertEquals(BODY, fetch(from, today));
+        assertEquals(List.of("", ETAG), List.copyOf(validators));
+    }
+
+    /**
+     * A range ending before today is final: once cached it is served without any request.
+     */
+    @Test
+    void finalizedRangeIsServedWithoutRequest() throws IOException {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+
+        assertEquals(BODY, fetch(from, to));
+        assertTrue(cache.get(ResponseCache.key(SERIES, from, to)).orElseThrow().finalized());
+
+        assertEquals(BODY, fetch(from, to));
+        assertEquals(1, validators.size());
+    }
+
+    private String fetch(LocalDate from, LocalDate to) throws IOException {
+        HttpResponse<InputStream> response = requestManager.makeStreamingRequest(SERIES, from, to).orElseThrow();
+        assertEquals(200, response.statusCode());
+        try (InputStream body = response.body()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Answers 304 when If-None-Match holds the current ETag, the body with its ETag otherwise,
+     * recording the validator each request carried.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        validators.add(ifNoneMatch == null ? "" : ifNoneMatch);
+
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        if (ETAG.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}